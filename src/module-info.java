@@ -1,5 +1,8 @@
 module BFSPuzzleSolver {
     requires transitive javafx.controls;
+    requires jdk.management;
+    requires jdk.jfr;
+    requires java.management;
     exports puzzles.common;
     exports puzzles.common.solver;
     exports puzzles.hoppers.gui;
@@ -1,11 +1,57 @@
 package puzzles.chess.model;
+import puzzles.common.solver.BackwardConfiguration;
+import puzzles.common.solver.BytePackedConfiguration;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.MonotoneConfiguration;
+import puzzles.common.solver.MoveConfiguration;
+import puzzles.common.solver.ZobristTable;
 import java.util.*;
+import java.util.function.Predicate;
 /**
  * A representation of one layout of a chessboard/
- * chess config
+ * chess config. The pieces are kept as bitboards, one
+ * bit per cell for each type of piece, so that moves can
+ * be found with the precomputed tables of ChessGeometry
  */
-public class ChessConfig implements Configuration {
+public class ChessConfig implements MoveConfiguration, BytePackedConfiguration, MonotoneConfiguration,
+        BackwardConfiguration {
+    /** the pieces that can be on the board, a piece packs as its index in this string */
+    private static final String PIECES = "PNKRBQ";
+    /** the number of bits used to pack one piece */
+    private static final int PIECE_BITS = 3;
+    private static final int PAWN = 0;
+    private static final int KNIGHT = 1;
+    private static final int KING = 2;
+    private static final int ROOK = 3;
+    private static final int BISHOP = 4;
+    private static final int QUEEN = 5;
+    /** the bitboard after the six piece bitboards that has every piece on it */
+    private static final int OCCUPIED = 6;
+
+    /**
+     * Something that is told about each capture on the board
+     */
+    private interface CaptureVisitor {
+        /**
+         * Gets told about one capture
+         * @param from the cell of the piece being moved
+         * @param to the cell of the piece getting captured
+         * @param piece the type of the piece being moved
+         * @return true to keep going and false to stop
+         */
+        boolean capture(int from, int to, int piece);
+    }
+
+    private final ChessGeometry geometry;
+    /** the seven bitboards one after another, each geometry.words longs long */
+    private final long[] boards;
+    /** the Zobrist hash of the board, updated move by move instead of rehashing the board */
+    private final long hash;
+    /** the number of pieces on the board, one less after every capture */
+    private final int pieceCount;
+    /** the board getGoals was called on, null if this board was not made by a backward search */
+    private ChessConfig origin;
+    /** the board as strings, only made when someone asks for it */
     private String[][] chessBoard;
     private int rowdim;
     private int coldim;
@@ -13,17 +59,60 @@ public class ChessConfig implements Configuration {
      * Makes the chessboard and sets the dimensions
      * @param chessBoard a 2D array of strings that represent the pieces
      *                  of a chess board and where they are located
+     * @throws IllegalArgumentException if a cell is not a piece or "."
      */
     public ChessConfig(String[][] chessBoard) {
         this.chessBoard = chessBoard;
         rowdim = chessBoard.length;
         coldim = chessBoard[0].length;
+        this.geometry = ChessGeometry.of(rowdim, coldim);
+        this.boards = new long[(OCCUPIED+1)*geometry.words];
+        for (int i = 0; i<rowdim; i++) {
+            for (int j = 0; j<coldim; j++) {
+                String cell = chessBoard[i][j];
+                if (!(cell.equals("."))){
+                    int piece = cell.length() == 1 ? PIECES.indexOf(cell.charAt(0)) : -1;
+                    if (piece < 0) {
+                        throw new IllegalArgumentException("Unknown chess piece: " + cell);
+                    }
+                    setBit(piece, i*coldim + j);
+                    setBit(OCCUPIED, i*coldim + j);
+                }
+            }
+        }
+        this.hash = hashOf(geometry, boards);
+        this.pieceCount = countPieces(geometry, boards);
+    }
+    /**
+     * Makes a chess config straight from its bitboards
+     * @param geometry the move tables for the size of the board
+     * @param boards the piece bitboards followed by the occupied bitboard
+     * @param hash the Zobrist hash of the board
+     * @param pieceCount the number of pieces on the board
+     */
+    private ChessConfig(ChessGeometry geometry, long[] boards, long hash, int pieceCount) {
+        this.geometry = geometry;
+        this.boards = boards;
+        this.hash = hash;
+        this.pieceCount = pieceCount;
+        rowdim = geometry.rows;
+        coldim = geometry.cols;
     }
     /**
      * Gets and return the chessbaord
      * @return the chessboard
      */
     public String[][] getChessBoard() {
+        if (chessBoard == null) {
+            String[][] board = new String[rowdim][coldim];
+            for (int i = 0; i<rowdim; i++) {
+                for (int j = 0; j<coldim; j++) {
+                    int piece = pieceAt(i*coldim + j);
+                    board[i][j] = piece < 0 ? "." : String.valueOf(PIECES.charAt(piece));
+                }
+            }
+            chessBoard = board;
+        }
         return chessBoard;
     }
     /**
@@ -40,53 +129,462 @@ public class ChessConfig implements Configuration {
     public int getColdim() {
         return coldim;
     }
+    /**
+     * Gets the layer of the board, which is its number of
+     * pieces since every capture takes one piece away
+     * @return the number of pieces
+     */
+    @Override
+    public int getLayer() {
+        return pieceCount;
+    }
+    /**
+     * Counts the pieces on a board from its occupied bitboard
+     * @param geometry the move tables for the size of the board
+     * @param boards the piece bitboards followed by the occupied bitboard
+     * @return the number of pieces
+     */
+    private static int countPieces(ChessGeometry geometry, long[] boards) {
+        int count = 0;
+        for (int word = 0; word < geometry.words; word++) {
+            count += Long.bitCount(boards[OCCUPIED*geometry.words + word]);
+        }
+        return count;
+    }
     /**
      * Checks to see if the current configuration
-     * is the solution to the puzzle
+     * is the solution to the puzzle, which is
+     * when only one piece is left
      * @return true if the puzzle is finished and false if not
      */
     @Override
     public boolean isSolution() {
-        int pieceCount = 0;
-        for (int i = 0; i<rowdim; i++) {
-            for (int j = 0; j<coldim; j++) {
-                if (!(this.chessBoard[i][j].equals("."))){
-                    pieceCount+=1;
-                }
-            }
-        }
-        if (pieceCount == 1){
-            return true;
-        }
-        return false;
+        return pieceCount == 1;
     }
     /**
-     * Goes through the chess board and gets configs
+     * Goes through the pieces in row-major order and gets configs
      * that happen when a piece captures another piece
      * @return A set of chess configs that could happen
      * when a piece moves and captures
      */
     @Override
     public Collection<Configuration> getNeighbors() {
-        Set neighbors = new LinkedHashSet<ChessConfig>();
-        for (int i = 0; i<rowdim; i++) {
-            for (int j = 0; j<coldim; j++) {
-                if (this.chessBoard[i][j].equals("P")){
-                    neighbors.addAll(getPawnNeighbors(i,j));
-                } else if (this.chessBoard[i][j].equals("N")) {
-                    neighbors.addAll(getKnightNeighbors(i,j));
-                } else if (this.chessBoard[i][j].equals("K")) {
-                    neighbors.addAll(getKingNeighbors(i,j));
-                } else if (this.chessBoard[i][j].equals("R")) {
-                    neighbors.addAll(getRookNeighbors(i,j));
-                } else if (this.chessBoard[i][j].equals("B")) {
-                    neighbors.addAll(getBishopNeighbors(i,j));
-                } else if (this.chessBoard[i][j].equals("Q")) {
-                    neighbors.addAll(getQueenNeighbors(i,j));
+        Set<Configuration> neighbors = new LinkedHashSet<>();
+        forEachCapture((from, to, piece) -> {
+            neighbors.add(capture(from, to, piece));
+            return true;
+        });
+        return neighbors;
+    }
+    /**
+     * Makes the configs for the captures one at a time, stopping
+     * as soon as the visitor says to
+     * @param visitor gets each new chess config, and returns false to stop
+     * @return true if every capture was visited
+     */
+    @Override
+    public boolean forEachNeighbor(Predicate<Configuration> visitor) {
+        return forEachCapture((from, to, piece) -> visitor.test(capture(from, to, piece)));
+    }
+    /**
+     * Makes every board with just one piece left, for each type of piece on
+     * this board and each cell it could be left on. A capture always lands
+     * on a cell that already had a piece, so the last piece has to be on
+     * one of the cells that have a piece now
+     * @return the boards with one piece that could solve this one
+     */
+    @Override
+    public Collection<Configuration> getGoals() {
+        int[] counts = pieceCounts();
+        List<Configuration> goals = new ArrayList<>();
+        for (int piece = 0; piece < OCCUPIED; piece++) {
+            if (counts[piece] == 0) {
+                continue;
+            }
+            for (int cell = 0; cell < geometry.cells; cell++) {
+                if (!isOccupied(cell)) {
+                    continue;
                 }
+                long[] newBoards = new long[(OCCUPIED+1)*geometry.words];
+                ChessGeometry.set(newBoards, piece*geometry.words*Long.SIZE + cell);
+                ChessGeometry.set(newBoards, OCCUPIED*geometry.words*Long.SIZE + cell);
+                ChessConfig goal = new ChessConfig(geometry, newBoards, geometry.zobrist.key(cell, piece), 1);
+                goal.origin = this;
+                goals.add(goal);
             }
         }
-        return neighbors;
+        return goals;
+    }
+    /**
+     * Undoes every capture that could have made this board. A piece
+     * could have come from any empty cell it can capture this cell from
+     * that had a piece on the starting board, and taken any type of piece
+     * that the starting board has more of than this one
+     * @return the set of boards one capture before this one
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        Set<Configuration> predecessors = new LinkedHashSet<>();
+        if (origin == null) {
+            return predecessors;
+        }
+        int[] startCounts = origin.pieceCounts();
+        int[] counts = pieceCounts();
+        int[] captured = new int[OCCUPIED];
+        int capturable = 0;
+        for (int piece = 0; piece < OCCUPIED; piece++) {
+            if (startCounts[piece] > counts[piece]) {
+                captured[capturable++] = piece;
+            }
+        }
+        if (capturable == 0) {
+            return predecessors;
+        }
+        int[] types = Arrays.copyOf(captured, capturable);
+        int occupied = OCCUPIED*geometry.words;
+        for (int word = 0; word < geometry.words; word++) {
+            long pieces = boards[occupied + word];
+            while (pieces != 0) {
+                int cell = word*Long.SIZE + Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                addUncaptures(cell, pieceAt(cell), types, predecessors);
+            }
+        }
+        return predecessors;
+    }
+    /**
+     * Finds every cell the piece on a cell could have captured it from
+     * and puts back each type of piece that could have been captured
+     * @param cell the cell the piece is on
+     * @param piece the type of the piece
+     * @param types the types of pieces that could have been captured
+     * @param predecessors gets the boards before each capture
+     */
+    private void addUncaptures(int cell, int piece, int[] types, Set<Configuration> predecessors) {
+        switch (piece) {
+            case PAWN:
+                addUnleaps(cell, piece, geometry.pawnSources[cell], types, predecessors);
+                break;
+            case KNIGHT:
+                addUnleaps(cell, piece, geometry.knightTargets[cell], types, predecessors);
+                break;
+            case KING:
+                addUnleaps(cell, piece, geometry.kingTargets[cell], types, predecessors);
+                break;
+            case ROOK:
+                addUnslides(cell, piece, ChessGeometry.ROOK_DIRECTIONS, ChessGeometry.BISHOP_DIRECTIONS, types, predecessors);
+                break;
+            case BISHOP:
+                addUnslides(cell, piece, ChessGeometry.BISHOP_DIRECTIONS, ChessGeometry.DIRECTIONS.length, types, predecessors);
+                break;
+            case QUEEN:
+                addUnslides(cell, piece, ChessGeometry.ROOK_DIRECTIONS, ChessGeometry.DIRECTIONS.length, types, predecessors);
+                break;
+            default:
+                break;
+        }
+    }
+    /**
+     * Undoes the captures of a pawn, knight or king, which could have
+     * come from any of the cells it leaps from that are empty now but
+     * had a piece on the starting board
+     * @param cell the cell the piece is on
+     * @param piece the type of the piece
+     * @param sources the cells the piece could have leapt from
+     * @param types the types of pieces that could have been captured
+     * @param predecessors gets the boards before each capture
+     */
+    private void addUnleaps(int cell, int piece, int[] sources, int[] types, Set<Configuration> predecessors) {
+        for (int source : sources) {
+            if (!isOccupied(source) && origin.isOccupied(source)) {
+                for (int type : types) {
+                    predecessors.add(uncapture(source, cell, piece, type));
+                }
+            }
+        }
+    }
+    /**
+     * Undoes the captures of a rook, bishop or queen, which could have
+     * come from any empty cell along a direction before the first piece
+     * that had a piece on the starting board
+     * @param cell the cell the piece is on
+     * @param piece the type of the piece
+     * @param firstDirection the first direction the piece moves in
+     * @param endDirection one past the last direction the piece moves in
+     * @param types the types of pieces that could have been captured
+     * @param predecessors gets the boards before each capture
+     */
+    private void addUnslides(int cell, int piece, int firstDirection, int endDirection, int[] types,
+                             Set<Configuration> predecessors) {
+        for (int direction = firstDirection; direction < endDirection; direction++) {
+            int row = cell / coldim + ChessGeometry.DIRECTIONS[direction][0];
+            int col = cell % coldim + ChessGeometry.DIRECTIONS[direction][1];
+            while (row >= 0 && row < rowdim && col >= 0 && col < coldim && !isOccupied(row*coldim + col)) {
+                if (origin.isOccupied(row*coldim + col)) {
+                    for (int type : types) {
+                        predecessors.add(uncapture(row*coldim + col, cell, piece, type));
+                    }
+                }
+                row += ChessGeometry.DIRECTIONS[direction][0];
+                col += ChessGeometry.DIRECTIONS[direction][1];
+            }
+        }
+    }
+    /**
+     * Makes the chess config from before a piece made a capture
+     * @param from the empty cell the piece came from
+     * @param to the cell the piece is on now
+     * @param piece the type of the piece that moved
+     * @param captured the type of the piece to put back on the to cell
+     * @return the board before the capture
+     */
+    private ChessConfig uncapture(int from, int to, int piece, int captured) {
+        long[] newBoards = boards.clone();
+        int words = geometry.words;
+        newBoards[piece*words + (to >>> 6)] &= ~(1L << to);
+        newBoards[captured*words + (to >>> 6)] |= 1L << to;
+        newBoards[piece*words + (from >>> 6)] |= 1L << from;
+        newBoards[OCCUPIED*words + (from >>> 6)] |= 1L << from;
+        ZobristTable keys = geometry.zobrist;
+        long newHash = hash ^ keys.key(to, piece) ^ keys.key(to, captured) ^ keys.key(from, piece);
+        ChessConfig before = new ChessConfig(geometry, newBoards, newHash, pieceCount + 1);
+        before.origin = origin;
+        return before;
+    }
+    /**
+     * Counts the pieces of each type on the board
+     * @return the number of pieces of each type, indexed like PIECES
+     */
+    private int[] pieceCounts() {
+        int[] counts = new int[OCCUPIED];
+        for (int piece = 0; piece < OCCUPIED; piece++) {
+            for (int word = 0; word < geometry.words; word++) {
+                counts[piece] += Long.bitCount(boards[piece*geometry.words + word]);
+            }
+        }
+        return counts;
+    }
+    /**
+     * Goes through the captures, working out the packed board after each
+     * one straight from the packed board now instead of making the new
+     * chess config. A move is the from cell times the cells plus the to cell.
+     * @param visitor what to tell about each move
+     */
+    @Override
+    public void forEachMove(MoveVisitor visitor) {
+        int cells = geometry.cells;
+        long packed = toLong();
+        long occupied = packed & ((1L << cells) - 1);
+        long pieces = packed >>> cells;
+        forEachCapture((from, to, piece) -> {
+            // the moving piece's field goes away and it takes over the captured piece's field
+            int fromIndex = Long.bitCount(occupied & ((1L << from) - 1));
+            int toIndex = Long.bitCount(occupied & ((1L << to) - 1)) - (to > from ? 1 : 0);
+            long newPieces = MoveConfiguration.removeField(pieces, fromIndex, PIECE_BITS);
+            newPieces = MoveConfiguration.removeField(newPieces, toIndex, PIECE_BITS);
+            newPieces = MoveConfiguration.insertField(newPieces, toIndex, PIECE_BITS, piece);
+            visitor.visit(from*cells + to, (occupied & ~(1L << from)) | (newPieces << cells));
+            return true;
+        });
+    }
+    /**
+     * Makes the chess config after a move from forEachMove
+     * @param move the from cell times the cells plus the to cell
+     * @return the new chess config
+     */
+    @Override
+    public Configuration applyMove(int move) {
+        int from = move / geometry.cells;
+        return capture(from, move % geometry.cells, pieceAt(from));
+    }
+    /**
+     * Goes through the pieces in row-major order and every
+     * capture each one can make
+     * @param visitor what to tell about each capture
+     * @return true if every capture was visited, false if the visitor stopped early
+     */
+    private boolean forEachCapture(CaptureVisitor visitor) {
+        int occupied = OCCUPIED*geometry.words;
+        DistinctCaptures distinct = new DistinctCaptures(visitor);
+        for (int word = 0; word < geometry.words; word++) {
+            long pieces = boards[occupied + word];
+            while (pieces != 0) {
+                int cell = word*Long.SIZE + Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                distinct.sameTypeCaptured = false;
+                if (!addCaptures(cell, pieceAt(cell), distinct)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    /**
+     * Passes captures on to another visitor, skipping the ones that make a
+     * board it has already been given. A piece capturing a piece of its own
+     * type just leaves its own cell empty, so every such capture by the same
+     * piece makes the same board and only the first one is passed on.
+     */
+    private class DistinctCaptures implements CaptureVisitor {
+        private final CaptureVisitor visitor;
+        /** true once the piece being looked at has captured a piece of its own type */
+        private boolean sameTypeCaptured;
+
+        /**
+         * Makes the filter
+         * @param visitor what to pass the distinct captures to
+         */
+        DistinctCaptures(CaptureVisitor visitor) {
+            this.visitor = visitor;
+        }
+
+        @Override
+        public boolean capture(int from, int to, int piece) {
+            if (pieceAt(to) == piece) {
+                if (sameTypeCaptured) {
+                    return true;
+                }
+                sameTypeCaptured = true;
+            }
+            return visitor.capture(from, to, piece);
+        }
+    }
+    /**
+     * Finds every capture the piece on a cell can make
+     * @param cell the cell the piece is on
+     * @param piece the type of the piece
+     * @param visitor what to tell about each capture
+     * @return true if every capture was visited, false if the visitor stopped early
+     */
+    private boolean addCaptures(int cell, int piece, CaptureVisitor visitor) {
+        switch (piece) {
+            case PAWN:
+                return addLeaps(cell, piece, geometry.pawnAttacks[cell], geometry.pawnTargets[cell], visitor);
+            case KNIGHT:
+                return addLeaps(cell, piece, geometry.knightAttacks[cell], geometry.knightTargets[cell], visitor);
+            case KING:
+                return addLeaps(cell, piece, geometry.kingAttacks[cell], geometry.kingTargets[cell], visitor);
+            case ROOK:
+                return addSlides(cell, piece, ChessGeometry.ROOK_DIRECTIONS, ChessGeometry.BISHOP_DIRECTIONS, visitor);
+            case BISHOP:
+                return addSlides(cell, piece, ChessGeometry.BISHOP_DIRECTIONS, ChessGeometry.DIRECTIONS.length, visitor);
+            case QUEEN:
+                return addSlides(cell, piece, ChessGeometry.ROOK_DIRECTIONS, ChessGeometry.DIRECTIONS.length, visitor);
+            default:
+                return true;
+        }
+    }
+    /**
+     * Finds the captures of a pawn, knight or king
+     * @param cell the cell the piece is on
+     * @param piece the type of the piece
+     * @param attacks the bitboard of the cells the piece attacks
+     * @param targets the same cells in the order they are tried
+     * @param visitor what to tell about each capture
+     * @return true if every capture was visited, false if the visitor stopped early
+     */
+    private boolean addLeaps(int cell, int piece, long[] attacks, int[] targets, CaptureVisitor visitor) {
+        if (!geometry.intersects(attacks, boards, OCCUPIED*geometry.words)) {
+            return true;
+        }
+        for (int target : targets) {
+            if (isOccupied(target) && !visitor.capture(cell, target, piece)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Finds the captures of a rook, bishop or queen, which is the
+     * first piece along each of its directions
+     * @param cell the cell the piece is on
+     * @param piece the type of the piece
+     * @param firstDirection the first direction the piece moves in
+     * @param endDirection one past the last direction the piece moves in
+     * @param visitor what to tell about each capture
+     * @return true if every capture was visited, false if the visitor stopped early
+     */
+    private boolean addSlides(int cell, int piece, int firstDirection, int endDirection, CaptureVisitor visitor) {
+        for (int direction = firstDirection; direction < endDirection; direction++) {
+            int target = geometry.firstBlocker(cell, direction, boards, OCCUPIED*geometry.words);
+            if (target >= 0 && !visitor.capture(cell, target, piece)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Makes the chess config after a piece captures another piece
+     * @param from the cell of the piece being moved
+     * @param to the cell of the piece getting captured
+     * @param piece the type of the piece being moved
+     * @return the new chess config
+     */
+    private ChessConfig capture(int from, int to, int piece) {
+        long[] newBoards = boards.clone();
+        int words = geometry.words;
+        int captured = pieceAt(to);
+        newBoards[captured*words + (to >>> 6)] &= ~(1L << to);
+        newBoards[piece*words + (from >>> 6)] &= ~(1L << from);
+        newBoards[piece*words + (to >>> 6)] |= 1L << to;
+        newBoards[OCCUPIED*words + (from >>> 6)] &= ~(1L << from);
+        ZobristTable keys = geometry.zobrist;
+        long newHash = hash ^ keys.key(from, piece) ^ keys.key(to, captured) ^ keys.key(to, piece);
+        return new ChessConfig(geometry, newBoards, newHash, pieceCount - 1);
+    }
+    /**
+     * Works out the Zobrist hash of a board from scratch
+     * @param geometry the move tables for the size of the board
+     * @param boards the piece bitboards followed by the occupied bitboard
+     * @return the XOR of the keys of every piece on the board
+     */
+    private static long hashOf(ChessGeometry geometry, long[] boards) {
+        long boardHash = 0;
+        for (int piece = 0; piece < OCCUPIED; piece++) {
+            for (int word = 0; word < geometry.words; word++) {
+                long bits = boards[piece*geometry.words + word];
+                while (bits != 0) {
+                    boardHash ^= geometry.zobrist.key(word*Long.SIZE + Long.numberOfTrailingZeros(bits), piece);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return boardHash;
+    }
+    /**
+     * Gets the type of the piece on a cell
+     * @param cell the cell in row-major order
+     * @return the index of the piece in PIECES, or -1 if the cell is empty
+     */
+    private int pieceAt(int cell) {
+        int words = geometry.words;
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        if ((boards[OCCUPIED*words + word] & bit) == 0) {
+            return -1;
+        }
+        for (int piece = 0; piece < OCCUPIED; piece++) {
+            if ((boards[piece*words + word] & bit) != 0) {
+                return piece;
+            }
+        }
+        return -1;
+    }
+    /**
+     * Sees if there is a piece on a cell
+     * @param cell the cell in row-major order
+     * @return true if the cell has a piece
+     */
+    private boolean isOccupied(int cell) {
+        return (boards[OCCUPIED*geometry.words + (cell >>> 6)] & (1L << cell)) != 0;
+    }
+    /**
+     * Sets the bit of a cell in one of the bitboards
+     * @param board the index of the bitboard
+     * @param cell the cell in row-major order
+     */
+    private void setBit(int board, int cell) {
+        boards[board*geometry.words + (cell >>> 6)] |= 1L << cell;
     }
     /**
      * Sees if a chess config the same as another chess config
@@ -101,23 +599,115 @@ public class ChessConfig implements Configuration {
         else
         {
             ChessConfig otherChess = (ChessConfig) other;
-            for (int i = 0; i<rowdim; i++){
-                for(int j = 0; j<coldim; j++){
-                    if (!(this.chessBoard[i][j].equals(otherChess.chessBoard[i][j]))){
-                        return false;
-                    }
-                }
-            }
-            return true;
+            return this.hash == otherChess.hash && this.pieceCount == otherChess.pieceCount
+                    && this.rowdim == otherChess.rowdim && this.coldim == otherChess.coldim
+                    && Arrays.equals(this.boards, otherChess.boards);
         }
     }
     /**
-     * Coverts the chess config into hash code
+     * Coverts the chess config into hash code using the cached Zobrist hash
      * @return the hash coded chess config
      */
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(chessBoard);
+        return ZobristTable.fold(hash);
+    }
+    /**
+     * Sees if the board can be packed into a long. The packed board is one
+     * bit per cell saying if there is a piece on it followed by three bits
+     * for each piece, so it fits when that adds up to 64 bits or less.
+     * Captures only ever remove pieces, so every later board fits too.
+     * @return true if the chess config fits in a long
+     */
+    @Override
+    public boolean fitsInLong() {
+        return geometry.cells + PIECE_BITS*pieceCount <= Long.SIZE;
+    }
+
+    /**
+     * Packs the board into a long, the low bits are the occupied bitboard
+     * and the bits above them hold the pieces in row-major order
+     * @return the packed chess config
+     */
+    @Override
+    public long toLong() {
+        long occupied = boards[OCCUPIED*geometry.words];
+        long packed = occupied;
+        int pieceShift = geometry.cells;
+        while (occupied != 0) {
+            int cell = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            packed |= (long) pieceAt(cell) << pieceShift;
+            pieceShift += PIECE_BITS;
+        }
+        return packed;
+    }
+
+    /**
+     * Makes the chess config for a board packed by toLong
+     * @param packed the packed board, with the same dimensions as this one
+     * @return the chess config that was packed
+     */
+    @Override
+    public Configuration fromLong(long packed) {
+        int cells = geometry.cells;
+        long occupied = cells == Long.SIZE ? packed : packed & ((1L << cells) - 1);
+        long[] newBoards = new long[(OCCUPIED+1)*geometry.words];
+        newBoards[OCCUPIED] = occupied;
+        int pieceShift = cells;
+        while (occupied != 0) {
+            int cell = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            int piece = (int) (packed >>> pieceShift) & ((1 << PIECE_BITS) - 1);
+            newBoards[piece] |= 1L << cell;
+            pieceShift += PIECE_BITS;
+        }
+        return new ChessConfig(geometry, newBoards, hashOf(geometry, newBoards), countPieces(geometry, newBoards));
+    }
+
+    /**
+     * Gets the number of bytes a packed board takes, which is
+     * four bits per cell
+     * @return the size of the packed board in bytes
+     */
+    @Override
+    public int packedSize() {
+        return (geometry.cells + 1) / 2;
+    }
+
+    /**
+     * Packs the board into bytes, four bits per cell in row-major order,
+     * holding 0 for an empty cell or one more than the index of the piece
+     * @param buffer the buffer to write into
+     * @param offset where in the buffer to start writing
+     */
+    @Override
+    public void packInto(byte[] buffer, int offset) {
+        for (int cell = 0; cell < geometry.cells; cell += 2) {
+            int high = pieceAt(cell) + 1;
+            int low = cell + 1 < geometry.cells ? pieceAt(cell + 1) + 1 : 0;
+            buffer[offset + cell / 2] = (byte) ((high << 4) | low);
+        }
+    }
+
+    /**
+     * Makes the chess config for a board packed by packInto
+     * @param buffer the buffer to read from
+     * @param offset where in the buffer the board starts
+     * @return the chess config that was packed
+     */
+    @Override
+    public Configuration unpackFrom(byte[] buffer, int offset) {
+        long[] newBoards = new long[(OCCUPIED+1)*geometry.words];
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            int nibble = buffer[offset + cell / 2] >>> (cell % 2 == 0 ? 4 : 0) & 0xF;
+            if (nibble != 0) {
+                // each bitboard is a whole number of longs, so its bits start at a multiple of 64
+                ChessGeometry.set(newBoards, (nibble - 1)*geometry.words*Long.SIZE + cell);
+                ChessGeometry.set(newBoards, OCCUPIED*geometry.words*Long.SIZE + cell);
+            }
+        }
+        return new ChessConfig(geometry, newBoards, hashOf(geometry, newBoards), countPieces(geometry, newBoards));
     }
     /**
      * A string representation of a chess config
@@ -125,6 +715,7 @@ public class ChessConfig implements Configuration {
      */
     @Override
     public String toString() {
+        String[][] board = getChessBoard();
         List<String> listOfStringRow = new ArrayList<>();
         String chessString = "";
         String stringRowOne = "   ";
@@ -145,7 +736,7 @@ public class ChessConfig implements Configuration {
                     stringRow+=(counter +"| ");
                     counter+=1;
                 }
-                stringRow+=chessBoard[i][j] + " ";
+                stringRow+=board[i][j] + " ";
             }
             listOfStringRow.add(stringRow);
         }
@@ -161,9 +752,10 @@ public class ChessConfig implements Configuration {
      * @param endRow - the row of the piece getting captured
      * @param endCol - the column of the piece getting captured
      * @param piece - the piece being moved
-     * @return
+     * @return the board after the capture
      */
     public String[][] makeNeighbor(int startRow, int startCol, int endRow, int endCol, String piece){
+        String[][] board = getChessBoard();
         String[][] newChessBoard = new String[rowdim][coldim];
         for (int i = 0; i<rowdim; i++) {
             for (int j = 0; j<coldim; j++) {
@@ -172,253 +764,10 @@ public class ChessConfig implements Configuration {
                 } else if (i == endRow && j == endCol) {
                     newChessBoard[i][j] = piece;
                 } else {
-                    newChessBoard[i][j] = this.chessBoard[i][j];
+                    newChessBoard[i][j] = board[i][j];
                 }
             }
         }
         return newChessBoard;
     }
-    /**
-     * Gets the configs dealing when a pawn captures another piece
-     * @param row - the row of where the pawn is located
-     * @param col - the column of where the pawn is located
-     * @return a list of configs that deal with when a pawn captures a piece
-     */
-    public Collection<Configuration> getPawnNeighbors(int row, int col){
-        Set pawnNeighbors = new LinkedHashSet<ChessConfig>();
-        try{
-            if (!(this.chessBoard[row-1][col+1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-1,col+1, "P"));
-                pawnNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-
-        try{
-            if (!(this.chessBoard[row-1][col-1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-1,col-1, "P"));
-                pawnNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        return pawnNeighbors;
-    }
-    /**
-     * Gets the configs dealing when a knight captures another piece
-     * @param row - the row of where the knight is located
-     * @param col - the column of where the knight is located
-     * @return a list of configs that deal with when a knight captures a piece
-     */
-    public Collection<Configuration> getKnightNeighbors(int row, int col){
-        Set knightNeighbors = new LinkedHashSet<ChessConfig>();
-        try{
-            if (!(this.chessBoard[row-2][col-1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-2,col-1, "N"));
-                knightNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row-2][col+1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-2,col+1, "N"));
-                knightNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row-1][col+2].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-1,col+2, "N"));
-                knightNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row+1][col+2].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row+1,col+2, "N"));
-                knightNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row+2][col+1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row+2,col+1, "N"));
-                knightNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row+2][col-1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row+2,col-1, "N"));
-                knightNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row+1][col-2].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row+1,col-2, "N"));
-                knightNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row-1][col-2].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-1,col-2, "N"));
-                knightNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        return knightNeighbors;
-    }
-    /**
-     * Gets the configs dealing when a king captures another piece
-     * @param row - the row of where the king is located
-     * @param col - the column of where the king is located
-     * @return a list of configs that deal with when a king captures a piece
-     */
-    public Collection<Configuration> getKingNeighbors(int row, int col){
-        Set kingNeighbors = new LinkedHashSet<ChessConfig>();
-        try{
-            if (!(this.chessBoard[row-1][col].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-1,col, "K"));
-                kingNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row+1][col].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row+1,col, "K"));
-                kingNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row][col-1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row,col-1, "K"));
-                kingNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row][col+1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row,col+1, "K"));
-                kingNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row+1][col+1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row+1,col+1, "K"));
-                kingNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row-1][col-1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-1,col-1, "K"));
-                kingNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row+1][col-1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row+1,col-1, "K"));
-                kingNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        try{
-            if (!(this.chessBoard[row-1][col+1].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row-1,col+1, "K"));
-                kingNeighbors.add(neighbor);
-            }
-        } catch (IndexOutOfBoundsException e){}
-        return kingNeighbors;
-    }
-    /**
-     * Gets the configs dealing when a rook captures another piece
-     * @param row - the row of where the rook is located
-     * @param col - the column of where the rook is located
-     * @return a list of configs that deal with when a rook captures a piece
-     */
-    public Collection<Configuration> getRookNeighbors(int row, int col){
-        Set rookNeighbors = new LinkedHashSet<ChessConfig>();
-        for(int i = row-1; i>=0; i-=1){
-            if(!(this.chessBoard[i][col].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, i, col, "R"));
-                rookNeighbors.add(neighbor);
-                break;
-            }
-        }
-        for(int i=row+1; i<rowdim; i+=1){
-            if(!(this.chessBoard[i][col].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, i, col, "R"));
-                rookNeighbors.add(neighbor);
-                break;
-            }
-        }
-        for(int i=col-1; i>=0; i-=1){
-            if(!(this.chessBoard[row][i].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row, i, "R"));
-                rookNeighbors.add(neighbor);
-                break;
-            }
-        }
-        for(int i=col+1; i<coldim; i++){
-            if(!(this.chessBoard[row][i].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, row, i, "R"));
-                rookNeighbors.add(neighbor);
-                break;
-            }
-        }
-        return rookNeighbors;
-    }
-    /**
-     * Gets the configs dealing when a bishop captures another piece
-     * @param row - the row of where the bishop is located
-     * @param col - the column of where the bishop is located
-     * @return a list of configs that deal with when a bishop captures a piece
-     */
-    public Collection<Configuration> getBishopNeighbors(int row, int col){
-        Set bishopNeighbors = new LinkedHashSet<ChessConfig>();
-        int dummyrow = row+1;
-        int dummycol = col+1;
-        while (dummyrow < rowdim && dummycol < coldim){
-            if(!(this.chessBoard[dummyrow][dummycol].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, dummyrow, dummycol, "B"));
-                bishopNeighbors.add(neighbor);
-                break;
-            }
-            dummyrow+=1;
-            dummycol+=1;
-        }
-        dummyrow=row-1;
-        dummycol=col-1;
-        while (dummyrow >= 0 && dummycol >= 0){
-            if(!(this.chessBoard[dummyrow][dummycol].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, dummyrow, dummycol, "B"));
-                bishopNeighbors.add(neighbor);
-                break;
-            }
-            dummyrow-=1;
-            dummycol-=1;
-        }
-        dummyrow=row+1;
-        dummycol=col-1;
-        while (dummyrow < rowdim && dummycol >= 0){
-            if(!(this.chessBoard[dummyrow][dummycol].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, dummyrow, dummycol, "B"));
-                bishopNeighbors.add(neighbor);
-                break;
-            }
-            dummyrow+=1;
-            dummycol-=1;
-        }
-        dummyrow=row-1;
-        dummycol=col+1;
-        while(dummyrow >= 0 && dummycol < coldim){
-            if(!(this.chessBoard[dummyrow][dummycol].equals("."))){
-                ChessConfig neighbor = new ChessConfig(makeNeighbor(row, col, dummyrow, dummycol, "B"));
-                bishopNeighbors.add(neighbor);
-                break;
-            }
-            dummyrow-=1;
-            dummycol+=1;
-        }
-        return bishopNeighbors;
-    }
-    /**
-     * Gets the configs dealing when a queen captures another piece
-     * @param row - the row of where the queen is located
-     * @param col - the column of where the queen is located
-     * @return a list of configs that deal with when a queen captures a piece
-     */
-    public Collection<Configuration> getQueenNeighbors(int row, int col) {
-        Set queenNeighbors = new LinkedHashSet<ChessConfig>();
-        queenNeighbors.addAll(getRookNeighbors(row, col));
-        queenNeighbors.addAll(getBishopNeighbors(row, col));
-        return queenNeighbors;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package puzzles.chess.model;
+
+import puzzles.common.solver.ZobristTable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The precomputed move tables for one size of chess board. Cells are numbered
+ * in row-major order (cell = row * cols + col) and a set of cells is a bitboard,
+ * an array of longs with one bit per cell, so any board size works, including
+ * the 81 cells of a 9x9 board. Boards of the same size share one geometry.
+ */
+final class ChessGeometry {
+    /** the steps of the rook directions (up, down, left, right) then the bishop
+     *  directions (down right, up left, down left, up right), as row and column */
+    static final int[][] DIRECTIONS = {{-1,0},{1,0},{0,-1},{0,1},{1,1},{-1,-1},{1,-1},{-1,1}};
+    /** the first rook direction in DIRECTIONS */
+    static final int ROOK_DIRECTIONS = 0;
+    /** the first bishop direction in DIRECTIONS */
+    static final int BISHOP_DIRECTIONS = 4;
+    /** the steps a pawn can capture with */
+    private static final int[][] PAWN_STEPS = {{-1,1},{-1,-1}};
+    /** the steps back to the cells a pawn could have captured from */
+    private static final int[][] PAWN_SOURCE_STEPS = {{1,-1},{1,1}};
+    /** the steps a knight can capture with */
+    private static final int[][] KNIGHT_STEPS = {{-2,-1},{-2,1},{-1,2},{1,2},{2,1},{2,-1},{1,-2},{-1,-2}};
+    /** the steps a king can capture with */
+    private static final int[][] KING_STEPS = {{-1,0},{1,0},{0,-1},{0,1},{1,1},{-1,-1},{1,-1},{-1,1}};
+
+    /** the number of different types of pieces */
+    static final int PIECE_TYPES = 6;
+
+    /** every geometry made so far, keyed by the rows in the high half and the columns in the low half */
+    private static final Map<Long, ChessGeometry> GEOMETRIES = new ConcurrentHashMap<>();
+
+    final int rows;
+    final int cols;
+    final int cells;
+    /** the number of longs in one bitboard */
+    final int words;
+
+    /** the cells a pawn, knight or king on a cell attacks, in the order they are tried */
+    final int[][] pawnTargets;
+    final int[][] knightTargets;
+    final int[][] kingTargets;
+    /** the cells a pawn could capture a cell from, the other way around to pawnTargets */
+    final int[][] pawnSources;
+    /** the same cells as bitboards */
+    final long[][] pawnAttacks;
+    final long[][] knightAttacks;
+    final long[][] kingAttacks;
+    /** the cells along each direction from a cell, indexed by direction then cell */
+    final long[][][] rays;
+    /** the hash keys of each piece type on each cell */
+    final ZobristTable zobrist;
+
+    /**
+     * Gets the geometry for a size of board, making it the first time it is needed
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return the geometry of the board
+     */
+    static ChessGeometry of(int rows, int cols) {
+        return GEOMETRIES.computeIfAbsent(((long) rows << 32) | cols, key -> new ChessGeometry(rows, cols));
+    }
+
+    /**
+     * Builds all the move tables for a board
+     * @param rows the number of rows
+     * @param cols the number of columns
+     */
+    private ChessGeometry(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = rows * cols;
+        this.words = (cells + Long.SIZE - 1) / Long.SIZE;
+        this.pawnTargets = new int[cells][];
+        this.knightTargets = new int[cells][];
+        this.kingTargets = new int[cells][];
+        this.pawnSources = new int[cells][];
+        this.pawnAttacks = new long[cells][];
+        this.knightAttacks = new long[cells][];
+        this.kingAttacks = new long[cells][];
+        this.rays = new long[DIRECTIONS.length][cells][];
+        this.zobrist = ZobristTable.of(cells, PIECE_TYPES);
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / cols;
+            int col = cell % cols;
+            pawnTargets[cell] = targets(row, col, PAWN_STEPS);
+            knightTargets[cell] = targets(row, col, KNIGHT_STEPS);
+            kingTargets[cell] = targets(row, col, KING_STEPS);
+            pawnSources[cell] = targets(row, col, PAWN_SOURCE_STEPS);
+            pawnAttacks[cell] = bitboard(pawnTargets[cell]);
+            knightAttacks[cell] = bitboard(knightTargets[cell]);
+            kingAttacks[cell] = bitboard(kingTargets[cell]);
+            for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                long[] ray = new long[words];
+                int r = row + DIRECTIONS[direction][0];
+                int c = col + DIRECTIONS[direction][1];
+                while (r >= 0 && r < rows && c >= 0 && c < cols) {
+                    set(ray, r * cols + c);
+                    r += DIRECTIONS[direction][0];
+                    c += DIRECTIONS[direction][1];
+                }
+                rays[direction][cell] = ray;
+            }
+        }
+    }
+
+    /**
+     * Gets the cells one step away from a cell that are on the board
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param steps the row and column steps to try, in order
+     * @return the cells on the board, in the order of the steps
+     */
+    private int[] targets(int row, int col, int[][] steps) {
+        int[] found = new int[steps.length];
+        int count = 0;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 0 && r < rows && c >= 0 && c < cols) {
+                found[count++] = r * cols + c;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Makes a bitboard with the given cells set
+     * @param cellsToSet the cells to set
+     * @return the bitboard
+     */
+    private long[] bitboard(int[] cellsToSet) {
+        long[] bits = new long[words];
+        for (int cell : cellsToSet) {
+            set(bits, cell);
+        }
+        return bits;
+    }
+
+    /**
+     * Sees if a direction goes towards higher numbered cells
+     * @param direction the index of the direction
+     * @return true if the cells along the direction increase
+     */
+    static boolean increasing(int direction) {
+        return DIRECTIONS[direction][0] > 0 || (DIRECTIONS[direction][0] == 0 && DIRECTIONS[direction][1] > 0);
+    }
+
+    /**
+     * Finds the first occupied cell along a direction, which is the
+     * only piece a rook, bishop or queen can capture that way
+     * @param from the cell the piece is on
+     * @param direction the index of the direction
+     * @param occupied the bitboard of every piece, starting at offset
+     * @param offset where the occupied bitboard starts in its array
+     * @return the nearest occupied cell, or -1 if there is none
+     */
+    int firstBlocker(int from, int direction, long[] occupied, int offset) {
+        long[] ray = rays[direction][from];
+        if (increasing(direction)) {
+            for (int word = 0; word < words; word++) {
+                long blockers = ray[word] & occupied[offset + word];
+                if (blockers != 0) {
+                    return word * Long.SIZE + Long.numberOfTrailingZeros(blockers);
+                }
+            }
+        } else {
+            for (int word = words - 1; word >= 0; word--) {
+                long blockers = ray[word] & occupied[offset + word];
+                if (blockers != 0) {
+                    return word * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(blockers);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sees if a bitboard has any cell in common with part of another array
+     * @param mask the bitboard
+     * @param bits the array holding the other bitboard
+     * @param offset where the other bitboard starts
+     * @return true if the two share a cell
+     */
+    boolean intersects(long[] mask, long[] bits, int offset) {
+        for (int word = 0; word < words; word++) {
+            if ((mask[word] & bits[offset + word]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the bit of a cell
+     * @param bits the bitboard
+     * @param cell the cell
+     */
+    static void set(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+}
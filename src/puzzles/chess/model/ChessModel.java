@@ -1,11 +1,18 @@
 package puzzles.chess.model;
 import puzzles.common.Observer;
-import puzzles.common.solver.Configuration;
+import puzzles.common.solver.HintEvent;
+import puzzles.common.solver.SearchEngine;
+import puzzles.common.solver.SearchListener;
+import puzzles.common.solver.SearchResult;
+import puzzles.common.solver.SearchStrategy;
+import puzzles.common.solver.SolverEvents;
+import puzzles.common.solver.SolverMonitor;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.regex.Pattern;
 
 /**
@@ -14,6 +21,8 @@ import java.util.regex.Pattern;
 public class ChessModel {
     /** the collection of observers of this model */
     private final List<Observer<ChessModel, String>> observers = new LinkedList<>();
+    /** the views told how the search of a hint is going, kept apart from the observers so the board is not redrawn */
+    private final List<SearchListener> searchListeners = new LinkedList<>();
 
     /** the current configuration */
     private ChessConfig currentConfig;
@@ -32,6 +41,14 @@ public class ChessModel {
     public void addObserver(Observer<ChessModel, String> observer) {
         this.observers.add(observer);
     }
+    /**
+     * A view that can show how a long hint search is going while it runs,
+     * such as the PTUI, calls this to be told its progress
+     * @param listener told the progress of every hint's search
+     */
+    public void addSearchListener(SearchListener listener) {
+        this.searchListeners.add(listener);
+    }
     /**
      * The model's state has changed (the counter), so inform the view via
      * the update method
@@ -117,47 +134,49 @@ public class ChessModel {
         }
     }
     /**
-     * Gives a hint to the user by providing the next movement to solve the puzzle
+     * Gives a hint to the user by providing the next movement to solve the puzzle.
+     * The search and telling the observers are recorded as a flight recorder event
+     * and counted by the SolverMonitor, which can also cancel the search.
      */
     public void useHint(){
-        if (this.currentConfig.isSolution() == true){
-            alertObservers("You finished the puzzle!");
-        } else {
-            Map<Configuration, Configuration> predecessor = new HashMap<>();
-            Configuration startConfig;
-            startConfig = this.currentConfig;
-            predecessor.put(startConfig, null);
-            Queue<Configuration> toVisit = new LinkedList<>();
-            toVisit.offer(startConfig);
-            while (!toVisit.isEmpty() && !toVisit.peek().isSolution()) {
-                Configuration current = toVisit.remove();
-                for (Configuration neighbors : current.getNeighbors()) {
-                    if (!(predecessor.containsKey(neighbors))) {
-                        predecessor.put(neighbors, current);
-                        toVisit.offer(neighbors);
-                    }
-                }
-            }
-            if (toVisit.isEmpty()) {
-                alertObservers("Puzzle is not solvable");
+        long begin = System.nanoTime();
+        HintEvent event = SolverEvents.beginHint();
+        boolean solved = true;
+        long uniqueConfigs = 0;
+        try {
+            if (this.currentConfig.isSolution() == true){
+                alertObservers("You finished the puzzle!");
             } else {
-                Configuration finishConfig = toVisit.remove();
-                List<Configuration> path = new LinkedList<>();
-                path.add(0, finishConfig);
-                Configuration node = predecessor.get(finishConfig);
-                while (node != null) {
-                    path.add(0, node);
-                    node = predecessor.get(node);
+                SearchEngine engine = SearchStrategy.BFS.newEngine();
+                for (SearchListener listener : searchListeners) {
+                    engine.addListener(listener);
+                }
+                SearchResult result;
+                try {
+                    result = engine.search(this.currentConfig);
+                } catch (CancellationException e) {
+                    solved = false;
+                    alertObservers("Hint cancelled");
+                    return;
                 }
-                ChessConfig hintConfig = (ChessConfig) path.get(1);
-                this.currentConfig = hintConfig;
-                if (this.currentConfig.isSolution() == true) {
-                    alertObservers("You finished the puzzle!");
+                solved = result.isSolved();
+                uniqueConfigs = result.getUniqueConfigs();
+                if (!result.isSolved()) {
+                    alertObservers("Puzzle is not solvable");
                 } else {
-                    alertObservers("Next Step!");
+                    ChessConfig hintConfig = (ChessConfig) result.getPath().get(1);
+                    this.currentConfig = hintConfig;
+                    if (this.currentConfig.isSolution() == true) {
+                        alertObservers("You finished the puzzle!");
+                    } else {
+                        alertObservers("Next Step!");
+                    }
+                    this.captureOrNot = 1;
                 }
-                this.captureOrNot = 1;
             }
+        } finally {
+            SolverEvents.endHint(event, "chess", solved, uniqueConfigs);
+            SolverMonitor.get().hintServed(System.nanoTime() - begin);
         }
     }
     /**
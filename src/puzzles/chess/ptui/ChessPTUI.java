@@ -18,6 +18,7 @@ public class ChessPTUI implements Observer<ChessModel, String> {
         System.out.println("Loaded: "+filename);
         System.out.println(this.model.getCurrentConfig().toString());
         this.model.addObserver(this);
+        this.model.addSearchListener(progress -> System.out.println("Searching: " + progress));
         displayHelp();
     }
     /**
@@ -1,6 +1,7 @@
 package puzzles.chess.solver;
 
 import puzzles.chess.model.ChessConfig;
+import puzzles.common.solver.SearchStrategy;
 import puzzles.common.solver.Solver;
 
 import java.io.*;
@@ -8,8 +9,8 @@ import java.util.Scanner;
 
 public class Chess {
     public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
-            System.out.println("Usage: java Chess filename");
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: java Chess filename [strategy]");
         } else {
             BufferedReader chessLoader = new BufferedReader(new FileReader(args[0]));
             String[] dims = chessLoader.readLine().split(" ");
@@ -32,7 +33,8 @@ public class Chess {
                 System.out.println();
             }
             ChessConfig initialConfig = new ChessConfig(chessBoard);
-            Solver.solve(initialConfig);
+            SearchStrategy strategy = args.length == 2 ? SearchStrategy.fromName(args[1]) : SearchStrategy.BFS;
+            Solver.solve(initialConfig, strategy);
         }
     }
 }
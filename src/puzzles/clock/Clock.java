@@ -1,5 +1,6 @@
 package puzzles.clock;
 
+import puzzles.common.solver.SearchStrategy;
 import puzzles.common.solver.Solver;
 /**
  * The main class for where the Clock Configs are created
@@ -10,16 +11,18 @@ public class Clock {
      * Makes the start config and prints the config
      * @param args the first number is the amount of hours the clock has
      *             the second number is the starting hour
-     *             the last number is the ending hour
+     *             the third number is the ending hour
+     *             an optional fourth argument names the search strategy
      */
     public static void main(String[] args) {
         if (args.length < 2) {
-            System.out.println(("Usage: java Clock hours stop end"));
+            System.out.println(("Usage: java Clock hours stop end [strategy]"));
         } else {
             ClockConfig initalConfig = new ClockConfig(args);
             System.out.println("Hours: "+initalConfig.getHours()+", Start: "
                     +initalConfig.getStart()+", End: "+initalConfig.getEnd());
-            Solver.solve(initalConfig);
+            SearchStrategy strategy = args.length > 3 ? SearchStrategy.fromName(args[3]) : SearchStrategy.BFS;
+            Solver.solve(initalConfig, strategy);
         }
     }
 }
@@ -1,15 +1,19 @@
 package puzzles.clock;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.HeuristicConfiguration;
+import puzzles.common.solver.PackedConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Predicate;
 /**
  * A single representation of a clock that uses
  * methods from the configuration interface
  */
-public class ClockConfig implements Configuration{
+public class ClockConfig implements PackedConfiguration, HeuristicConfiguration, ReversibleConfiguration {
     private final String hours;
     private String current;
     private final String end;
@@ -99,6 +103,70 @@ public class ClockConfig implements Configuration{
         return neighbors;
     }
 
+    /**
+     * Hands the hour after and then the hour before the current one to a
+     * visitor without putting them in a set first. When the two are the
+     * same hour, like on a two hour clock, it is only handed over once.
+     * @param visitor gets each neighbor clock config, and returns false to stop
+     * @return true if every neighbor was visited
+     */
+    @Override
+    public boolean forEachNeighbor(Predicate<Configuration> visitor) {
+        int hour = Integer.parseInt(this.current);
+        int numberOfHours = Integer.parseInt(hours);
+        int next = hour + 1 > numberOfHours ? 1 : hour + 1;
+        int previous = hour - 1 == 0 ? numberOfHours : hour - 1;
+        if (!visitor.test(new ClockConfig(new String[]{hours, String.valueOf(next), end}))) {
+            return false;
+        }
+        return previous == next || visitor.test(new ClockConfig(new String[]{hours, String.valueOf(previous), end}));
+    }
+
+    /**
+     * Estimates the moves left as the number of hours between the current
+     * hour and the end hour, going whichever way around the clock is
+     * shorter. Each move turns the clock one hour, so this is the exact
+     * number of moves when the end hour is on the clock, and zero when it
+     * is not since then there is no solution to head towards anyway.
+     * @return a lower bound on the moves left to the end config
+     */
+    @Override
+    public int estimateCost() {
+        int numberOfHours = Integer.parseInt(hours);
+        int hour = Integer.parseInt(this.current);
+        int endHour;
+        try {
+            endHour = Integer.parseInt(end);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        if (hour < 1 || hour > numberOfHours || endHour < 1 || endHour > numberOfHours) {
+            return 0;
+        }
+        int distance = Math.abs(hour - endHour);
+        return Math.min(distance, numberOfHours - distance);
+    }
+
+    /**
+     * Gets the end config. Turning the clock forwards an hour is undone by
+     * turning it back an hour, so a clock can be searched backwards as long
+     * as the end hour is written the way the moves write it and is on the clock.
+     * @return the end config, or null if the end hour can never be reached
+     */
+    @Override
+    public Configuration getGoal() {
+        int endHour;
+        try {
+            endHour = Integer.parseInt(end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (endHour < 1 || endHour > Integer.parseInt(hours) || !end.equals(String.valueOf(endHour))) {
+            return null;
+        }
+        return new ClockConfig(new String[]{hours, end, end});
+    }
+
     /**
      * Sees if two clock configs are the same object
      * @param other the other clock config being compared
@@ -129,6 +197,34 @@ public class ClockConfig implements Configuration{
         return hours.hashCode() + this.current.hashCode() + end.hashCode();
     }
 
+    /**
+     * Every hour of the clock is a number, so it always fits in a long
+     * @return true
+     */
+    @Override
+    public boolean fitsInLong() {
+        return true;
+    }
+
+    /**
+     * Packs the clock config into the hour it is showing
+     * @return the current hour
+     */
+    @Override
+    public long toLong() {
+        return Long.parseLong(this.current);
+    }
+
+    /**
+     * Makes the clock config showing the packed hour
+     * @param packed the hour the clock should show
+     * @return a clock config with the same hours and end as this one
+     */
+    @Override
+    public Configuration fromLong(long packed) {
+        return new ClockConfig(new String[]{hours, String.valueOf(packed), end});
+    }
+
     /**
      * Makes a nice looking string representation of the clock config
      * @return a string containing the info about the clock config
@@ -0,0 +1,196 @@
+package puzzles.common.bench;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SearchStrategy;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Microbenchmarks for the parts of a puzzle the solver leans on the most:
+ * making neighbors, hashCode and equals, isSolution, and a whole search.
+ * Every puzzle in PuzzleCase is benchmarked. The config level
+ * benchmarks run over a sample of the first configs a BFS reaches from the
+ * start, so they see boards from several depths and not just the start.
+ * The search benchmark does what Solver.solve does without printing.
+ * <p>
+ * Each benchmark is warmed up and then run for a number of timed
+ * iterations, and prints its operations per second and how many bytes it
+ * allocated per operation, read from the thread's allocation counter.
+ * <p>
+ * Usage: java puzzles.common.bench.Benchmark [regex], where only the
+ * benchmarks whose names contain a match of the regex are run. The
+ * "bench.warmup" and "bench.iterations" system properties set the number
+ * of iterations, "bench.millis" the length of each one, "bench.sample" the
+ * number of configs in a sample and "bench.strategy" the search strategy.
+ */
+public final class Benchmark {
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 2);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+    private static final long MILLIS = Long.getLong("bench.millis", 500);
+    private static final int SAMPLE = Integer.getInteger("bench.sample", 1000);
+    private static final SearchStrategy STRATEGY =
+            SearchStrategy.fromName(System.getProperty("bench.strategy", "bfs"));
+
+    /** everything the benchmarks work out, so the JIT cannot throw the work away */
+    private static long sink;
+
+    /**
+     * What one benchmark measured
+     * @param name the name of the benchmark
+     * @param opsPerSecond the mean operations per second over the iterations
+     * @param error the standard deviation of the operations per second
+     * @param bytesPerOp the mean bytes allocated per operation
+     */
+    public record Result(String name, double opsPerSecond, double error, double bytesPerOp) {
+        /**
+         * Gets the allocation rate of the benchmark
+         * @return the megabytes allocated per second
+         */
+        public double allocationRate() {
+            return opsPerSecond * bytesPerOp / (1024 * 1024);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %14.1f +- %-12.1f %12.1f %10.1f",
+                    name, opsPerSecond, error, bytesPerOp, allocationRate());
+        }
+    }
+
+    private Benchmark() {
+    }
+
+    /**
+     * Runs the benchmarks and prints a line for each one
+     * @param args an optional regex that picks the benchmarks to run
+     * @throws IOException if a board cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Pattern filter = Pattern.compile(args.length > 0 ? args[0] : "");
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.out.printf("%-40s %14s    %-12s %12s %10s%n", "Benchmark", "ops/s", "error", "B/op", "MB/s");
+        for (PuzzleCase puzzle : PuzzleCase.all()) {
+            if (names(puzzle).stream().noneMatch(name -> filter.matcher(name).find())) {
+                continue;
+            }
+            List<Configuration> sample = sample(puzzle.start());
+            // a second copy of the sample, equal config by config but made separately
+            List<Configuration> copies = sample(puzzle.start());
+            Map<String, Runnable> benchmarks = new LinkedHashMap<>();
+            benchmarks.put("getNeighbors", () -> {
+                for (Configuration config : sample) {
+                    sink += config.getNeighbors().size();
+                }
+            });
+            benchmarks.put("hashCode", () -> {
+                for (Configuration config : sample) {
+                    sink += config.hashCode();
+                }
+            });
+            benchmarks.put("equals", () -> {
+                for (int i = 0; i < sample.size(); i++) {
+                    sink += sample.get(i).equals(copies.get(i)) ? 1 : 0;
+                }
+            });
+            benchmarks.put("isSolution", () -> {
+                for (Configuration config : sample) {
+                    sink += config.isSolution() ? 1 : 0;
+                }
+            });
+            benchmarks.put("solve", () -> sink += STRATEGY.newEngine().search(puzzle.start()).getTotalConfigs());
+            for (Map.Entry<String, Runnable> benchmark : benchmarks.entrySet()) {
+                String name = puzzle.name() + "." + benchmark.getKey();
+                if (filter.matcher(name).find()) {
+                    int ops = benchmark.getKey().equals("solve") ? 1 : sample.size();
+                    System.out.println(measure(name, benchmark.getValue(), ops, threads));
+                }
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Gets the names of the benchmarks of a puzzle
+     * @param puzzle the puzzle
+     * @return the name of each of its benchmarks
+     */
+    private static List<String> names(PuzzleCase puzzle) {
+        List<String> names = new ArrayList<>();
+        for (String benchmark : List.of("getNeighbors", "hashCode", "equals", "isSolution", "solve")) {
+            names.add(puzzle.name() + "." + benchmark);
+        }
+        return names;
+    }
+
+    /**
+     * Warms up a benchmark and then times it
+     * @param name the name of the benchmark
+     * @param benchmark one call of the benchmark
+     * @param opsPerCall the number of operations done by one call
+     * @param threads where the bytes allocated by this thread are read from
+     * @return what was measured
+     */
+    private static Result measure(String name, Runnable benchmark, int opsPerCall,
+                                  com.sun.management.ThreadMXBean threads) {
+        for (int i = 0; i < WARMUP; i++) {
+            runFor(benchmark);
+        }
+        double[] rates = new double[ITERATIONS];
+        long totalOps = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+            long begin = System.nanoTime();
+            long calls = runFor(benchmark);
+            long elapsed = System.nanoTime() - begin;
+            totalBytes += threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+            totalOps += calls * opsPerCall;
+            rates[i] = calls * opsPerCall * 1e9 / elapsed;
+        }
+        double mean = Arrays.stream(rates).average().orElse(0);
+        double variance = Arrays.stream(rates).map(rate -> (rate - mean) * (rate - mean)).sum()
+                / Math.max(1, rates.length - 1);
+        return new Result(name, mean, Math.sqrt(variance), totalOps == 0 ? 0 : (double) totalBytes / totalOps);
+    }
+
+    /**
+     * Calls a benchmark over and over for one iteration, and at least once
+     * @param benchmark one call of the benchmark
+     * @return the number of calls made
+     */
+    private static long runFor(Runnable benchmark) {
+        long end = System.nanoTime() + MILLIS * 1_000_000;
+        long calls = 0;
+        do {
+            benchmark.run();
+            calls++;
+        } while (System.nanoTime() < end);
+        return calls;
+    }
+
+    /**
+     * Gets the first configs a breadth first search reaches from the start
+     * @param start the starting configuration
+     * @return up to SAMPLE configs in the order they were reached
+     */
+    private static List<Configuration> sample(Configuration start) {
+        Set<Configuration> seen = new LinkedHashSet<>();
+        Queue<Configuration> queue = new ArrayDeque<>();
+        seen.add(start);
+        queue.add(start);
+        while (!queue.isEmpty() && seen.size() < SAMPLE) {
+            for (Configuration neighbor : queue.remove().getNeighbors()) {
+                if (seen.size() < SAMPLE && seen.add(neighbor)) {
+                    queue.add(neighbor);
+                }
+            }
+        }
+        return new ArrayList<>(seen);
+    }
+}
@@ -0,0 +1,173 @@
+package puzzles.common.bench;
+
+import puzzles.common.solver.SearchResult;
+import puzzles.common.solver.SearchStrategy;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the solver on every puzzle in PuzzleCase without printing the steps
+ * and checks the results against the expected output in the output
+ * directory. For the engines that find a shortest path the number of steps
+ * has to match. DFS and MONOTONE_DFS stop at the first solution they reach,
+ * so for them a puzzle only has to be solved exactly when the expected
+ * output is, and in no fewer steps, which is reported as PASS_PATH_FOUND.
+ * The unique configs are only reported, since
+ * engines that remember less or search from both ends count them
+ * differently. Each puzzle gets a line in a CSV file with both results,
+ * the wall time, the peak heap and the configs generated per second.
+ * <p>
+ * Usage: java puzzles.common.bench.GoldenCheck [strategy] [csv file] [regex],
+ * where the strategy defaults to bfs, the CSV file to golden-check.csv and
+ * only the puzzles whose names contain a match of the regex are run. Exits
+ * with status 1 if any puzzle failed its check.
+ */
+public final class GoldenCheck {
+    private static final Pattern UNIQUE = Pattern.compile("Unique configs: (\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern STEP = Pattern.compile("^Step \\d+:", Pattern.MULTILINE);
+
+    /**
+     * What the expected output of a puzzle says
+     * @param steps the moves in the solution, -1 if there is no solution
+     * @param unique the unique configs, -1 if the file does not say
+     */
+    private record Golden(int steps, long unique) {}
+
+    private GoldenCheck() {
+    }
+
+    /**
+     * Checks every puzzle and writes the CSV file
+     * @param args the optional strategy, CSV file and regex
+     * @throws IOException if a board, an expected output or the CSV file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        SearchStrategy strategy = args.length > 0 ? SearchStrategy.fromName(args[0]) : SearchStrategy.BFS;
+        Path csv = Path.of(args.length > 1 ? args[1] : "golden-check.csv");
+        Pattern filter = Pattern.compile(args.length > 2 ? args[2] : "");
+        int failures = 0;
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("case,strategy,expected_steps,steps,expected_unique,unique,total,"
+                    + "wall_ms,peak_heap_mb,configs_per_sec,status");
+            for (PuzzleCase puzzle : PuzzleCase.all()) {
+                if (!filter.matcher(puzzle.name()).find()) {
+                    continue;
+                }
+                Golden golden = readGolden(puzzle.golden());
+                resetPeakHeap();
+                long begin = System.nanoTime();
+                SearchResult result = strategy.newEngine().search(puzzle.start());
+                long elapsed = System.nanoTime() - begin;
+                int steps = result.isSolved() ? result.getSteps() : -1;
+                String status;
+                if (golden == null) {
+                    status = "NO_GOLDEN";
+                } else if (!findsShortestPath(strategy)) {
+                    boolean agrees = golden.steps() < 0 ? steps < 0 : steps >= golden.steps();
+                    status = agrees ? "PASS_PATH_FOUND" : "FAIL";
+                    if (!agrees) {
+                        failures++;
+                    }
+                } else if (golden.steps() != steps) {
+                    status = "FAIL";
+                    failures++;
+                } else if (golden.unique() != result.getUniqueConfigs()) {
+                    status = "PASS_UNIQUE_DIFFERS";
+                } else {
+                    status = "PASS";
+                }
+                String line = String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%d,%.1f,%.1f,%.0f,%s",
+                        puzzle.name(), strategy.name().toLowerCase(Locale.ROOT),
+                        golden == null ? -1 : golden.steps(), steps,
+                        golden == null ? -1 : golden.unique(), result.getUniqueConfigs(),
+                        result.getTotalConfigs(), elapsed / 1e6, peakHeap() / (1024.0 * 1024.0),
+                        result.getTotalConfigs() * 1e9 / Math.max(1, elapsed), status);
+                out.println(line);
+                out.flush();
+                System.out.println(line);
+            }
+        }
+        System.out.println(failures == 0 ? "All puzzles pass" : failures + " puzzle(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sees if a strategy always finds a shortest path, so that its steps
+     * can be held to the expected output
+     * @param strategy the strategy
+     * @return false for the depth first searches, which stop at the first solution
+     */
+    private static boolean findsShortestPath(SearchStrategy strategy) {
+        return strategy != SearchStrategy.DFS && strategy != SearchStrategy.MONOTONE_DFS;
+    }
+
+    /**
+     * Reads the steps and unique configs out of an expected output file.
+     * The steps are the number of "Step" lines less one, since the start
+     * is step 0, or -1 if the file says there is no solution.
+     * @param file the expected output
+     * @return what the file says, or null if there is no such file
+     * @throws IOException if the file cannot be read
+     */
+    private static Golden readGolden(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String text = Files.readString(file);
+        Matcher unique = UNIQUE.matcher(text);
+        long uniqueConfigs = unique.find() ? Long.parseLong(unique.group(1)) : -1;
+        if (text.contains("No solution")) {
+            return new Golden(-1, uniqueConfigs);
+        }
+        Matcher step = STEP.matcher(text);
+        int steps = 0;
+        while (step.find()) {
+            steps++;
+        }
+        return new Golden(steps - 1, uniqueConfigs);
+    }
+
+    /**
+     * Cleans up the heap and starts the peak heap over from what is in use now
+     */
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : heapPools()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * Adds up the peak use of every heap memory pool since the last reset
+     * @return the peak heap in bytes
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    /**
+     * Gets the memory pools that make up the heap
+     * @return the heap memory pools
+     */
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+                .toList();
+    }
+}
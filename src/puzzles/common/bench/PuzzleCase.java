@@ -0,0 +1,111 @@
+package puzzles.common.bench;
+
+import puzzles.chess.model.ChessConfig;
+import puzzles.clock.ClockConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.hoppers.model.HoppersConfig;
+import puzzles.strings.StringsConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One puzzle that the benchmarks and the golden output check are run on.
+ * The puzzles are every board in data/chess and data/hoppers, plus the
+ * Clock and Strings runs of the IntelliJ run configurations, and each one
+ * has the expected solver output for it in the output directory.
+ * @param name the name of the puzzle, such as "chess-4" or "clock-12-2-11"
+ * @param start the starting configuration
+ * @param golden the file with the expected output of the solver
+ */
+record PuzzleCase(String name, Configuration start, Path golden) {
+    /** the clock runs of the IntelliJ run configurations, as hours, start and end */
+    private static final String[][] CLOCKS = {
+            {"12", "2", "11"}, {"12", "2", "15"}, {"12", "5", "5"},
+            {"24", "22", "9"}, {"100", "90", "30"}, {"1000", "42", "722"}};
+    /** the strings runs of the IntelliJ run configurations, as start and end. "AB CDE" is
+     *  left out since its strings are different lengths, which StringsConfig does not handle */
+    private static final String[][] STRINGS = {
+            {"AB", "XD"}, {"ABC", "ABC"}, {"ABC", "BZD"}, {"B", "!"},
+            {"B", "Y"}, {"CAT", "DOG"}, {"MARCH", "APRIL"}, {"P", "U"}};
+
+    /**
+     * Makes every puzzle, reading the boards from the working directory
+     * @return the chess boards, the hoppers boards, the clocks and then the strings
+     * @throws IOException if a board cannot be read
+     */
+    static List<PuzzleCase> all() throws IOException {
+        List<PuzzleCase> cases = new ArrayList<>();
+        for (File file : boards("data/chess")) {
+            cases.add(of("chess", baseName(file), new ChessConfig(readBoard(file.toPath()))));
+        }
+        for (File file : boards("data/hoppers")) {
+            cases.add(of("hoppers", baseName(file), new HoppersConfig(readBoard(file.toPath()))));
+        }
+        for (String[] clock : CLOCKS) {
+            cases.add(of("clock", "clock-" + String.join("-", clock), new ClockConfig(clock)));
+        }
+        for (String[] strings : STRINGS) {
+            cases.add(of("strings", "strings-" + String.join("-", strings), new StringsConfig(strings)));
+        }
+        return cases;
+    }
+
+    /**
+     * Makes a puzzle whose expected output is output/puzzle/name-out.txt
+     * @param puzzle the kind of puzzle, which is also its directory
+     * @param name the name of the puzzle
+     * @param start the starting configuration
+     * @return the puzzle
+     */
+    private static PuzzleCase of(String puzzle, String name, Configuration start) {
+        return new PuzzleCase(name, start, Path.of("output", puzzle, name + "-out.txt"));
+    }
+
+    /**
+     * Gets the name of a board file without its ".txt"
+     * @param file the board file
+     * @return the name of the board
+     */
+    private static String baseName(File file) {
+        String name = file.getName();
+        return name.endsWith(".txt") ? name.substring(0, name.length() - 4) : name;
+    }
+
+    /**
+     * Gets the board files in a directory, in order of name
+     * @param directory the directory of the boards
+     * @return the board files, none if the directory is missing
+     */
+    private static List<File> boards(String directory) {
+        File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(".txt"));
+        if (files == null) {
+            return List.of();
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * Reads a chess or hoppers board file, which is the number of rows and
+     * columns on the first line followed by one line of cells per row
+     * @param file the board file
+     * @return the cells of the board
+     * @throws IOException if the file cannot be read
+     */
+    private static String[][] readBoard(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        String[] dims = lines.get(0).trim().split("\\s+");
+        int rows = Integer.parseInt(dims[0]);
+        String[][] board = new String[rows][];
+        for (int row = 0; row < rows; row++) {
+            board[row] = lines.get(row + 1).trim().split("\\s+");
+        }
+        return board;
+    }
+}
@@ -0,0 +1,125 @@
+package puzzles.common.collections;
+
+import java.util.Arrays;
+
+/**
+ * Gives every distinct value a dense int id, 0, 1, 2, ... in the order the
+ * values were first added. The values are kept in an array indexed by id
+ * and the hash table itself is an int array of ids, so there is no entry
+ * object per value like in a HashMap. The hash code of every value is kept
+ * too, so most probes never call equals and growing never calls hashCode.
+ * @param <T> the type of the values
+ */
+public class IdTable<T> {
+    /** the slot value of an empty slot, a full slot holds its id plus one */
+    private static final int EMPTY = 0;
+
+    private Object[] values;
+    private int[] hashes;
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    /**
+     * Makes an empty table
+     */
+    public IdTable() {
+        this(16);
+    }
+
+    /**
+     * Makes an empty table sized for the expected number of values
+     * @param expected the number of values expected
+     */
+    public IdTable(int expected) {
+        int capacity = LongHashing.capacityFor(expected);
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        this.values = new Object[capacity / 2];
+        this.hashes = new int[capacity / 2];
+    }
+
+    /**
+     * Adds a value only if it is not in the table yet, so that checking
+     * for a value and adding it only has to probe once
+     * @param value the value to add
+     * @return the id of the new value, or -1 if the value was already there
+     */
+    public int add(T value) {
+        int hash = value.hashCode();
+        int slot = (int) LongHashing.mix(hash) & mask;
+        while (slots[slot] != EMPTY) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && values[id].equals(value)) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        int id = size++;
+        values[id] = value;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (2 * size > slots.length) {
+            grow();
+        }
+        return id;
+    }
+
+    /**
+     * Finds the id of a value
+     * @param value the value to look for
+     * @return the id of the value, or -1 if it is not in the table
+     */
+    public int idOf(T value) {
+        int hash = value.hashCode();
+        int slot = (int) LongHashing.mix(hash) & mask;
+        while (slots[slot] != EMPTY) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && values[id].equals(value)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the value with an id
+     * @param id the id of the value
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No id " + id + " in a table of " + size);
+        }
+        return (T) values[id];
+    }
+
+    /**
+     * Gets the number of values in the table, which is also the next id
+     * @return the size of the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the slots and puts every id back in
+     */
+    private void grow() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = (int) LongHashing.mix(hashes[id]) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package puzzles.common.collections;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, without boxing every element.
+ */
+public class IntList {
+    private int[] elements = new int[16];
+    private int size;
+
+    /**
+     * Adds a value to the end of the list
+     * @param value the value to add
+     */
+    public void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * Gets the value at an index
+     * @param index the index of the value
+     * @return the value
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return elements[index];
+    }
+
+    /**
+     * Changes the value at an index
+     * @param index the index of the value
+     * @param value the new value
+     */
+    public void set(int index, int value) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        elements[index] = value;
+    }
+
+    /**
+     * Gets the number of values in the list
+     * @return the size of the list
+     */
+    public int size() {
+        return size;
+    }
+}
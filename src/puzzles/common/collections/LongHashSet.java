@@ -0,0 +1,118 @@
+package puzzles.common.collections;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive longs stored in a single open addressing table.
+ * There is no object per element, so each element costs 8 to 16 bytes
+ * instead of the 50 or more of a HashSet entry plus its key object.
+ */
+public class LongHashSet {
+    /** the value that marks an empty slot, stored separately when it is in the set */
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean hasEmptyKey;
+
+    /**
+     * Makes an empty set
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Makes an empty set sized for the expected number of elements
+     * @param expected the number of elements expected
+     */
+    public LongHashSet(int expected) {
+        int capacity = LongHashing.capacityFor(expected);
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds a value to the set
+     * @param key the value to add
+     * @return true if the value was not in the set before
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (hasEmptyKey) {
+                return false;
+            }
+            hasEmptyKey = true;
+            size++;
+            return true;
+        }
+        int slot = (int) LongHashing.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        if (2 * size > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Sees if a value is in the set
+     * @param key the value to look for
+     * @return true if the value is in the set and false if not
+     */
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return hasEmptyKey;
+        }
+        int slot = (int) LongHashing.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of values in the set
+     * @return the size of the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every value from the set, keeping the table it has grown to
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        hasEmptyKey = false;
+        size = 0;
+    }
+
+    /**
+     * Doubles the table and puts every value back in
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        keys = new long[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                int slot = (int) LongHashing.mix(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package puzzles.common.collections;
+
+/**
+ * Hashing helpers shared by the primitive long collections.
+ */
+final class LongHashing {
+    private LongHashing() {}
+
+    /**
+     * Scrambles the bits of a key so that keys which only differ in a few
+     * low or high bits still land in different slots (the murmur3 finalizer)
+     * @param key the key to scramble
+     * @return the scrambled key
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Gets a power of two table size big enough to hold the expected
+     * number of keys while staying at most half full
+     * @param expected the number of keys expected
+     * @return the table size
+     */
+    static int capacityFor(int expected) {
+        int capacity = 16;
+        while (capacity < 2L * expected && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,81 @@
+package puzzles.common.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of primitive longs kept in a binary heap, smallest
+ * first. A search can pack a priority into the high bits of each long
+ * and an id into the low bits, so ties come out in order of id without
+ * an entry object per queued config.
+ */
+public class LongHeap {
+    private long[] elements = new long[16];
+    private int size;
+
+    /**
+     * Adds a value to the heap
+     * @param value the value to add
+     */
+    public void add(long value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        int child = size++;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (elements[parent] <= value) {
+                break;
+            }
+            elements[child] = elements[parent];
+            child = parent;
+        }
+        elements[child] = value;
+    }
+
+    /**
+     * Takes the smallest value out of the heap
+     * @return the smallest value
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        long smallest = elements[0];
+        long last = elements[--size];
+        int parent = 0;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && elements[child + 1] < elements[child]) {
+                child++;
+            }
+            if (last <= elements[child]) {
+                break;
+            }
+            elements[parent] = elements[child];
+            parent = child;
+        }
+        elements[parent] = last;
+        return smallest;
+    }
+
+    /**
+     * Sees if the heap has no values
+     * @return true if the heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of values in the heap
+     * @return the size of the heap
+     */
+    public int size() {
+        return size;
+    }
+}
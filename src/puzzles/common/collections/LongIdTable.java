@@ -0,0 +1,98 @@
+package puzzles.common.collections;
+
+import java.util.Arrays;
+
+/**
+ * Gives every distinct primitive long a dense int id, 0, 1, 2, ... in the
+ * order the longs were first added. The longs are kept in one array
+ * indexed by id and the hash table is an int array of ids, so a value
+ * costs its eight bytes plus two int slots.
+ */
+public class LongIdTable {
+    /** the slot value of an empty slot, a full slot holds its id plus one */
+    private static final int EMPTY = 0;
+
+    private long[] values;
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    /**
+     * Makes an empty table
+     */
+    public LongIdTable() {
+        this(16);
+    }
+
+    /**
+     * Makes an empty table sized for the expected number of values
+     * @param expected the number of values expected
+     */
+    public LongIdTable(int expected) {
+        int capacity = LongHashing.capacityFor(expected);
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        this.values = new long[capacity / 2];
+    }
+
+    /**
+     * Adds a value only if it is not in the table yet, so that checking
+     * for a value and adding it only has to probe once
+     * @param value the value to add
+     * @return the id of the new value, or -1 if the value was already there
+     */
+    public int add(long value) {
+        int slot = (int) LongHashing.mix(value) & mask;
+        while (slots[slot] != EMPTY) {
+            if (values[slots[slot] - 1] == value) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        int id = size++;
+        values[id] = value;
+        slots[slot] = id + 1;
+        if (2 * size > slots.length) {
+            grow();
+        }
+        return id;
+    }
+
+    /**
+     * Gets the value with an id
+     * @param id the id of the value
+     * @return the value
+     */
+    public long get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No id " + id + " in a table of " + size);
+        }
+        return values[id];
+    }
+
+    /**
+     * Gets the number of values in the table, which is also the next id
+     * @return the size of the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the slots and puts every id back in
+     */
+    private void grow() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = (int) LongHashing.mix(values[id]) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package puzzles.common.collections;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A first in first out queue of primitive longs kept in a ring buffer
+ * that doubles in size when it fills up.
+ */
+public class LongQueue {
+    private long[] elements = new long[16];
+    private int head;
+    private int size;
+
+    /**
+     * Adds a value to the back of the queue
+     * @param value the value to add
+     */
+    public void offer(long value) {
+        if (size == elements.length) {
+            long[] bigger = new long[elements.length * 2];
+            for (int i = 0; i < size; i++) {
+                bigger[i] = elements[(head + i) & (elements.length - 1)];
+            }
+            elements = bigger;
+            head = 0;
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * Looks at the value at the front of the queue without removing it
+     * @return the value at the front
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[head];
+    }
+
+    /**
+     * Removes the value at the front of the queue
+     * @return the value that was at the front
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long poll() {
+        long value = peek();
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * Sees if the queue has no values in it
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of values in the queue
+     * @return the size of the queue
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,391 @@
+package puzzles.common.collections;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An open addressing table of packed states that lives in memory mapped
+ * files instead of on the Java heap, so it can grow past the heap and the
+ * garbage collector never has to look at it. Every state gets an index in
+ * the order it was added, and is stored as a fixed size record of its
+ * packed bytes followed by the index of its parent. The records are kept
+ * in "states.bin" behind a small header, and the slots of the hash table
+ * are kept in "slots-<number of slots>.bin", the number being the one in
+ * the header. When the table grows the slots are written to a new file and
+ * the old one is only deleted if it can be, since some systems (Windows)
+ * will not delete or replace a file that is still mapped. Each slot holds the index of a record plus one,
+ * with the top bits of the state's hash above it so most probes never have
+ * to read the record. Since records are added in order, walking the indexes
+ * from 0 visits the states in the order they were found, which is exactly
+ * the queue of a BFS. The files stay behind after the table is closed and
+ * can be opened again to look at the states.
+ */
+public class MappedStateTable implements Closeable {
+    /** marks a file as a state table ("STAT") */
+    private static final int MAGIC = 0x53544154;
+    /** the header holds the magic number, key size, size and number of slots */
+    private static final int HEADER_BYTES = 24;
+    private static final int SIZE_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 16;
+    /** the bytes of the parent index after each key */
+    private static final int PARENT_BYTES = Long.BYTES;
+    /** the records mapped at a time, so that no record is split between two mappings */
+    private static final int RECORDS_PER_SEGMENT = 1 << 16;
+    /** the slots mapped at a time, 128MB of slots */
+    private static final int SLOTS_PER_SEGMENT = 1 << 24;
+    /** the low bits of a slot hold the record index plus one, the high bits hold part of the hash */
+    private static final int INDEX_BITS = 40;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final String STATES_FILE = "states.bin";
+
+    private final Path directory;
+    private final FileChannel states;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> records = new ArrayList<>();
+    private final int keySize;
+    private final int recordSize;
+    private List<MappedByteBuffer> slots;
+    private long capacity;
+    private long mask;
+    private long size;
+
+    /**
+     * Makes a new empty table in a directory, replacing any table already there
+     * @param directory the directory to keep the files in
+     * @param keySize the bytes of a packed state
+     * @return the new table
+     * @throws IOException if the files cannot be made
+     */
+    public static MappedStateTable create(Path directory, int keySize) throws IOException {
+        if (keySize < 1) {
+            throw new IllegalArgumentException("key size must be positive: " + keySize);
+        }
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(directory, "slots-*.bin")) {
+            for (Path file : old) {
+                deleteIfUnused(file);
+            }
+        }
+        FileChannel states = FileChannel.open(directory.resolve(STATES_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = states.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.putInt(0, MAGIC);
+        header.putInt(4, keySize);
+        header.putLong(SIZE_OFFSET, 0);
+        header.putLong(CAPACITY_OFFSET, 16);
+        MappedStateTable table = new MappedStateTable(directory, states, header);
+        table.slots = mapSlots(slotsFile(directory, table.capacity), table.capacity, true);
+        return table;
+    }
+
+    /**
+     * Opens a table made before, for example to look at it after a search
+     * @param directory the directory the files are in
+     * @return the table
+     * @throws IOException if the files cannot be read or are not a state table
+     */
+    public static MappedStateTable open(Path directory) throws IOException {
+        FileChannel states = FileChannel.open(directory.resolve(STATES_FILE),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = states.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (header.getInt(0) != MAGIC) {
+            states.close();
+            throw new IOException("Not a state table: " + directory);
+        }
+        MappedStateTable table = new MappedStateTable(directory, states, header);
+        table.slots = mapSlots(slotsFile(directory, table.capacity), table.capacity, false);
+        return table;
+    }
+
+    /**
+     * Sets up a table from its header
+     * @param directory the directory the files are in
+     * @param states the file of the header and records
+     * @param header the mapped header
+     */
+    private MappedStateTable(Path directory, FileChannel states, MappedByteBuffer header) {
+        this.directory = directory;
+        this.states = states;
+        this.header = header;
+        this.keySize = header.getInt(4);
+        this.recordSize = keySize + PARENT_BYTES;
+        this.size = header.getLong(SIZE_OFFSET);
+        this.capacity = header.getLong(CAPACITY_OFFSET);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds a state if it is not in the table yet, so that checking for
+     * a state and adding it only has to probe once
+     * @param key the buffer holding the packed state
+     * @param offset where the packed state starts in the buffer
+     * @param parent the index of the state it was reached from, or -1 for none
+     * @return the index of the new state, or -1 if it was already in the table
+     * @throws IOException if the files cannot be grown
+     */
+    public long add(byte[] key, int offset, long parent) throws IOException {
+        long hash = hash(key, offset);
+        long tag = hash >>> INDEX_BITS;
+        long slot = hash & mask;
+        long entry;
+        while ((entry = getSlot(slot)) != 0) {
+            if ((entry >>> INDEX_BITS) == tag && keyEquals((entry & INDEX_MASK) - 1, key, offset)) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long index = size;
+        MappedByteBuffer segment = recordSegment(index);
+        int position = (int) (index % RECORDS_PER_SEGMENT) * recordSize;
+        segment.put(position, key, offset, keySize);
+        segment.putLong(position + keySize, parent);
+        setSlot(slot, (tag << INDEX_BITS) | (index + 1));
+        size++;
+        header.putLong(SIZE_OFFSET, size);
+        if (2 * size > capacity) {
+            grow();
+        }
+        return index;
+    }
+
+    /**
+     * Finds the index of a state
+     * @param key the buffer holding the packed state
+     * @param offset where the packed state starts in the buffer
+     * @return the index of the state, or -1 if it is not in the table
+     * @throws IOException if a record cannot be mapped
+     */
+    public long indexOf(byte[] key, int offset) throws IOException {
+        long hash = hash(key, offset);
+        long tag = hash >>> INDEX_BITS;
+        long slot = hash & mask;
+        long entry;
+        while ((entry = getSlot(slot)) != 0) {
+            if ((entry >>> INDEX_BITS) == tag && keyEquals((entry & INDEX_MASK) - 1, key, offset)) {
+                return (entry & INDEX_MASK) - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Copies the packed bytes of a state into a buffer
+     * @param index the index of the state
+     * @param buffer the buffer to copy into
+     * @param offset where in the buffer to copy to
+     * @throws IOException if the record cannot be mapped
+     */
+    public void getKey(long index, byte[] buffer, int offset) throws IOException {
+        checkIndex(index);
+        recordSegment(index).get((int) (index % RECORDS_PER_SEGMENT) * recordSize, buffer, offset, keySize);
+    }
+
+    /**
+     * Gets the index of the state a state was reached from
+     * @param index the index of the state
+     * @return the index of its parent, or -1 if it has none
+     * @throws IOException if the record cannot be mapped
+     */
+    public long getParent(long index) throws IOException {
+        checkIndex(index);
+        return recordSegment(index).getLong((int) (index % RECORDS_PER_SEGMENT) * recordSize + keySize);
+    }
+
+    /**
+     * Gets the number of states in the table
+     * @return the size of the table
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the bytes of a packed state
+     * @return the key size
+     */
+    public int keySize() {
+        return keySize;
+    }
+
+    /**
+     * Gets the directory the table's files are in
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Writes the mapped pages out and closes the files. The mappings
+     * themselves are let go when the garbage collector frees them.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        header.force();
+        for (MappedByteBuffer segment : records) {
+            segment.force();
+        }
+        for (MappedByteBuffer segment : slots) {
+            segment.force();
+        }
+        states.close();
+    }
+
+    /**
+     * Makes sure an index is of a state in the table
+     * @param index the index
+     */
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No state " + index + " in a table of " + size);
+        }
+    }
+
+    /**
+     * Sees if a stored state has the same bytes as a key
+     * @param index the index of the stored state
+     * @param key the buffer holding the packed state
+     * @param offset where the packed state starts in the buffer
+     * @return true if the bytes are the same
+     * @throws IOException if the record cannot be mapped
+     */
+    private boolean keyEquals(long index, byte[] key, int offset) throws IOException {
+        MappedByteBuffer segment = recordSegment(index);
+        int position = (int) (index % RECORDS_PER_SEGMENT) * recordSize;
+        for (int i = 0; i < keySize; i++) {
+            if (segment.get(position + i) != key[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the mapping a record is in, mapping more of the file when needed
+     * @param index the index of the record
+     * @return the mapping holding the record
+     * @throws IOException if the file cannot be mapped
+     */
+    private MappedByteBuffer recordSegment(long index) throws IOException {
+        int segment = (int) (index / RECORDS_PER_SEGMENT);
+        long segmentBytes = (long) RECORDS_PER_SEGMENT * recordSize;
+        while (records.size() <= segment) {
+            records.add(states.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + records.size() * segmentBytes, segmentBytes));
+        }
+        return records.get(segment);
+    }
+
+    /**
+     * Doubles the slots into a new file and puts every state back in.
+     * The old file is still mapped, so it is never renamed over, only
+     * deleted if the system allows it.
+     * @throws IOException if the new file cannot be made
+     */
+    private void grow() throws IOException {
+        long newCapacity = capacity * 2;
+        long newMask = newCapacity - 1;
+        Path old = slotsFile(directory, capacity);
+        List<MappedByteBuffer> newSlots = mapSlots(slotsFile(directory, newCapacity), newCapacity, true);
+        byte[] key = new byte[keySize];
+        for (long index = 0; index < size; index++) {
+            getKey(index, key, 0);
+            long hash = hash(key, 0);
+            long slot = hash & newMask;
+            while (getSlot(newSlots, slot) != 0) {
+                slot = (slot + 1) & newMask;
+            }
+            setSlot(newSlots, slot, ((hash >>> INDEX_BITS) << INDEX_BITS) | (index + 1));
+        }
+        slots = newSlots;
+        capacity = newCapacity;
+        mask = newMask;
+        header.putLong(CAPACITY_OFFSET, capacity);
+        deleteIfUnused(old);
+    }
+
+    /**
+     * Gets the file of the slots for a number of slots
+     * @param directory the directory the files are in
+     * @param capacity the number of slots
+     * @return the file of the slots
+     */
+    private static Path slotsFile(Path directory, long capacity) {
+        return directory.resolve("slots-" + capacity + ".bin");
+    }
+
+    /**
+     * Deletes a file of slots if the system lets it, leaving it behind
+     * if it is still mapped somewhere that does not allow that
+     * @param file the file
+     */
+    private static void deleteIfUnused(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // still mapped, the next create or the engine's clean up gets it
+        }
+    }
+
+    /**
+     * Maps a file of slots
+     * @param file the file
+     * @param capacity the number of slots
+     * @param fresh true to make a new empty file, false to open an existing one
+     * @return the mappings of the slots
+     * @throws IOException if the file cannot be mapped
+     */
+    private static List<MappedByteBuffer> mapSlots(Path file, long capacity, boolean fresh) throws IOException {
+        List<MappedByteBuffer> mapped = new ArrayList<>();
+        try (FileChannel channel = fresh
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (long first = 0; first < capacity; first += SLOTS_PER_SEGMENT) {
+                long count = Math.min(SLOTS_PER_SEGMENT, capacity - first);
+                mapped.add(channel.map(FileChannel.MapMode.READ_WRITE, first * Long.BYTES, count * Long.BYTES));
+            }
+        }
+        return mapped;
+    }
+
+    private long getSlot(long slot) {
+        return getSlot(slots, slot);
+    }
+
+    private void setSlot(long slot, long entry) {
+        setSlot(slots, slot, entry);
+    }
+
+    private static long getSlot(List<MappedByteBuffer> slots, long slot) {
+        return slots.get((int) (slot / SLOTS_PER_SEGMENT)).getLong((int) (slot % SLOTS_PER_SEGMENT) * Long.BYTES);
+    }
+
+    private static void setSlot(List<MappedByteBuffer> slots, long slot, long entry) {
+        slots.get((int) (slot / SLOTS_PER_SEGMENT)).putLong((int) (slot % SLOTS_PER_SEGMENT) * Long.BYTES, entry);
+    }
+
+    /**
+     * Hashes the bytes of a packed state
+     * @param key the buffer holding the packed state
+     * @param offset where the packed state starts in the buffer
+     * @return the hash
+     */
+    private long hash(byte[] key, int offset) {
+        long hash = keySize;
+        for (int i = 0; i < keySize; i++) {
+            hash = hash * 31 + (key[offset + i] & 0xFF);
+        }
+        return LongHashing.mix(hash);
+    }
+}
@@ -0,0 +1,151 @@
+package puzzles.common.collections;
+
+import java.util.Arrays;
+
+/**
+ * Packed states of a fixed number of bytes, stored one after another in
+ * large byte array pages instead of as one object each. Every distinct
+ * state gets a dense int id, its handle, in the order it was added, and
+ * the hash table is an int array of handles. Hashing and equality work
+ * straight on the packed bytes, so no config object is needed to look a
+ * state up. The hash of every state is kept too, so most probes compare
+ * an int before comparing any bytes.
+ */
+public class StateArena {
+    /** the slot value of an empty slot, a full slot holds its id plus one */
+    private static final int EMPTY = 0;
+    /** the states in one page of the arena */
+    private static final int PAGE_STATES = 1 << 16;
+
+    private final int keySize;
+    private byte[][] pages = new byte[1][];
+    private int[] hashes = new int[16];
+    private int[] slots = new int[32];
+    private int mask = slots.length - 1;
+    private int size;
+
+    /**
+     * Makes an empty arena
+     * @param keySize the bytes of a packed state
+     */
+    public StateArena(int keySize) {
+        if (keySize < 1) {
+            throw new IllegalArgumentException("key size must be positive: " + keySize);
+        }
+        this.keySize = keySize;
+    }
+
+    /**
+     * Adds a state only if it is not in the arena yet, so that checking
+     * for a state and adding it only has to probe once
+     * @param key the buffer holding the packed state
+     * @param offset where the packed state starts in the buffer
+     * @return the id of the new state, or -1 if the state was already there
+     */
+    public int add(byte[] key, int offset) {
+        int hash = hash(key, offset);
+        int slot = (int) LongHashing.mix(hash) & mask;
+        while (slots[slot] != EMPTY) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && Arrays.equals(page(id), position(id), position(id) + keySize,
+                    key, offset, offset + keySize)) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = size++;
+        if (id == hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        int page = id / PAGE_STATES;
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+        }
+        if (pages[page] == null) {
+            pages[page] = new byte[PAGE_STATES * keySize];
+        }
+        System.arraycopy(key, offset, pages[page], position(id), keySize);
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (2 * size > slots.length) {
+            grow();
+        }
+        return id;
+    }
+
+    /**
+     * Copies the packed bytes of a state into a buffer
+     * @param id the id of the state
+     * @param buffer the buffer to copy into
+     * @param offset where in the buffer to copy to
+     */
+    public void get(int id, byte[] buffer, int offset) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No id " + id + " in an arena of " + size);
+        }
+        System.arraycopy(page(id), position(id), buffer, offset, keySize);
+    }
+
+    /**
+     * Gets the number of states in the arena, which is also the next id
+     * @return the size of the arena
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the bytes of a packed state
+     * @return the key size
+     */
+    public int keySize() {
+        return keySize;
+    }
+
+    /**
+     * Gets the page a state is in
+     * @param id the id of the state
+     * @return the page
+     */
+    private byte[] page(int id) {
+        return pages[id / PAGE_STATES];
+    }
+
+    /**
+     * Gets where a state starts in its page
+     * @param id the id of the state
+     * @return the position of its first byte
+     */
+    private int position(int id) {
+        return (id % PAGE_STATES) * keySize;
+    }
+
+    /**
+     * Hashes the bytes of a packed state
+     * @param key the buffer holding the packed state
+     * @param offset where the packed state starts in the buffer
+     * @return the hash
+     */
+    private int hash(byte[] key, int offset) {
+        int hash = 1;
+        for (int i = 0; i < keySize; i++) {
+            hash = 31 * hash + key[offset + i];
+        }
+        return hash;
+    }
+
+    /**
+     * Doubles the slots and puts every id back in
+     */
+    private void grow() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = (int) LongHashing.mix(hashes[id]) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package puzzles.common.solver;
+
+import puzzles.common.collections.IdTable;
+import puzzles.common.collections.IntList;
+import puzzles.common.collections.LongHeap;
+
+import java.util.*;
+
+/**
+ * A* search over the configurations. Configs are expanded in order of the
+ * number of moves made so far plus an estimate of the moves still needed,
+ * which comes from HeuristicConfiguration when the puzzle has one. Every
+ * move costs one, so as long as the estimate never overshoots the path
+ * found is the shortest one. Configs are numbered in an IdTable and the
+ * open queue is a LongHeap of the priority (high half) and id (low half)
+ * of each entry, so ties are broken in the order configs were discovered.
+ */
+public class AStarEngine extends AbstractSearchEngine {
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.A_STAR;
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        IdTable<Configuration> seen = new IdTable<>();
+        IntList parents = new IntList();
+        IntList costs = new IntList();
+        IntList estimates = new IntList();
+        LongHeap open = new LongHeap();
+        seen.add(start);
+        parents.add(-1);
+        costs.add(0);
+        estimates.add(estimate(start));
+        open.add(entry(estimates.get(0), 0));
+        while (!open.isEmpty()) {
+            long entry = open.poll();
+            int id = (int) entry;
+            // a config that was reached more cheaply since it was queued has a newer entry
+            if ((int) (entry >>> 32) > costs.get(id) + estimates.get(id)) {
+                continue;
+            }
+            Configuration current = seen.get(id);
+            if (current.isSolution()) {
+                uniqueConfigs = seen.size();
+                return buildPath(parents, seen::get, id);
+            }
+            progress(costs.get(id), open.size(), seen.size());
+            int cost = costs.get(id) + 1;
+            current.forEachNeighbor(neighbor -> {
+                totalConfigs += 1;
+                int known = seen.idOf(neighbor);
+                if (known < 0) {
+                    int newId = seen.add(neighbor);
+                    parents.add(id);
+                    costs.add(cost);
+                    estimates.add(estimate(neighbor));
+                    open.add(entry(cost + estimates.get(newId), newId));
+                } else if (cost < costs.get(known)) {
+                    parents.set(known, id);
+                    costs.set(known, cost);
+                    open.add(entry(cost + estimates.get(known), known));
+                }
+                return true;
+            });
+        }
+        uniqueConfigs = seen.size();
+        return null;
+    }
+
+    /**
+     * Packs an entry of the open queue into a long
+     * @param priority the cost plus the estimate of the moves left
+     * @param id the id of the config
+     * @return the entry, ordered by priority and then by id
+     */
+    private static long entry(int priority, int id) {
+        return ((long) priority << 32) | id;
+    }
+
+    /**
+     * Estimates the number of moves left from the config to a solution.
+     * Without any knowledge of the puzzle this is zero, which makes the
+     * search expand configs in order of their distance from the start.
+     * @param config the config to estimate from
+     * @return a lower bound on the moves left
+     */
+    protected int estimate(Configuration config) {
+        return HeuristicConfiguration.estimateOf(config);
+    }
+}
@@ -0,0 +1,265 @@
+package puzzles.common.solver;
+
+import puzzles.common.collections.IntList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntFunction;
+
+/**
+ * The shared parts of every search engine: keeping the config counts,
+ * timing the search, telling the listeners how it is going and turning
+ * predecessor links into a path. Every search, every layer of a layered
+ * search and every path rebuilt is also a flight recorder event, so a
+ * recording shows where the time of a slow search went. Every search is
+ * tracked by the SolverMonitor while it runs, which can also cancel it.
+ */
+public abstract class AbstractSearchEngine implements SearchEngine {
+    /** how often listeners are told the progress when the "solver.progressMillis" system property is not set */
+    private static final long DEFAULT_PROGRESS_MILLIS = 1000;
+    private static final long PROGRESS_NANOS =
+            Long.getLong("solver.progressMillis", DEFAULT_PROGRESS_MILLIS) * 1_000_000;
+    /** how many calls to progress go by between the snapshots the SolverMonitor reads */
+    private static final int SNAPSHOT_INTERVAL = 1024;
+
+    /** the number of configs generated so far, including duplicates */
+    protected long totalConfigs;
+    /** the number of distinct configs remembered by the engine */
+    protected long uniqueConfigs;
+
+    private final List<SearchListener> listeners = new ArrayList<>();
+    /** when the current search began and when the listeners are next told its progress */
+    private long begin;
+    private long nextProgress;
+    /** the event of the layer being expanded, begun when the layer before it was done, null if not recording */
+    private LayerEvent layer;
+    /** the total configs when the layer being expanded began */
+    private long layerStart;
+    /** where the running search is, as last passed to progress */
+    private int depth;
+    private long frontier;
+    private long visited;
+    /** the calls to progress left before the next snapshot */
+    private int untilSnapshot;
+    /** the last snapshot of the running search, the only thing other threads read */
+    private volatile SearchProgress snapshot;
+    private volatile boolean cancelled;
+
+    @Override
+    public void addListener(SearchListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Times the search and packages up its path and counts
+     * @param start the starting configuration of the puzzle
+     * @return the result of the search
+     * @throws CancellationException if the search was cancelled before it finished
+     */
+    @Override
+    public SearchResult search(Configuration start) {
+        this.totalConfigs = 1;
+        this.uniqueConfigs = 1;
+        this.depth = 0;
+        this.frontier = 1;
+        this.visited = 1;
+        this.cancelled = false;
+        this.begin = System.nanoTime();
+        this.nextProgress = begin + PROGRESS_NANOS;
+        publish(begin);
+        SearchEvent event = SolverEvents.beginSearch();
+        beginLayer();
+        SolverMonitor monitor = SolverMonitor.get();
+        monitor.searchStarted(this);
+        List<Configuration> path;
+        try {
+            path = explore(start);
+        } finally {
+            monitor.searchFinished(this, cancelled);
+        }
+        long elapsed = System.nanoTime() - begin;
+        SearchResult result = new SearchResult(getStrategy(), path, totalConfigs, uniqueConfigs, elapsed);
+        SolverEvents.endSearch(event, start, result);
+        for (SearchListener listener : listeners) {
+            listener.finished(result);
+        }
+        return result;
+    }
+
+    /**
+     * Hands the whole search to another engine, for when this engine
+     * cannot search the given config. The listeners of this engine
+     * are told the progress of the other one.
+     * @param engine the engine to search with
+     * @param start the starting configuration of the puzzle
+     * @return the result of the other engine's search
+     */
+    protected SearchResult handOff(SearchEngine engine, Configuration start) {
+        for (SearchListener listener : listeners) {
+            engine.addListener(listener);
+        }
+        return engine.search(start);
+    }
+
+    /**
+     * Tells the listeners how the search is going if it has been long
+     * enough since they were last told. Engines call this once for every
+     * config they expand, so it does little more than stop a cancelled
+     * search when there are no listeners. Every so often it also takes a
+     * snapshot for the SolverMonitor.
+     * @param depth how deep the search is, in moves from the start
+     * @param frontier the configs waiting to be expanded
+     * @param visited the distinct configs the engine has counted so far
+     * @throws CancellationException if the search has been cancelled
+     */
+    protected final void progress(int depth, long frontier, long visited) {
+        this.depth = depth;
+        this.frontier = frontier;
+        this.visited = visited;
+        checkCancelled();
+        if (--untilSnapshot <= 0) {
+            publish(System.nanoTime());
+        }
+        if (listeners.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now < nextProgress) {
+            return;
+        }
+        nextProgress = now + PROGRESS_NANOS;
+        SearchProgress progress = publish(now);
+        for (SearchListener listener : listeners) {
+            listener.progress(progress);
+        }
+    }
+
+    /**
+     * Tells whether the search has been cancelled, for work that runs
+     * off the search thread and cannot stop the search itself
+     * @return true if the search has been cancelled
+     */
+    protected final boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Stops the search if it has been cancelled
+     * @throws CancellationException if the search has been cancelled
+     */
+    protected final void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException(getStrategy() + " search was cancelled");
+        }
+    }
+
+    /**
+     * Takes a snapshot of where the search is and publishes it to the
+     * SolverMonitor, which reads it from another thread
+     * @param now the current time in nanoseconds
+     * @return the snapshot
+     */
+    private SearchProgress publish(long now) {
+        Runtime runtime = Runtime.getRuntime();
+        SearchProgress progress = new SearchProgress(getStrategy(), depth, frontier, totalConfigs, visited,
+                now - begin, runtime.totalMemory() - runtime.freeMemory());
+        untilSnapshot = SNAPSHOT_INTERVAL;
+        snapshot = progress;
+        return progress;
+    }
+
+    /**
+     * Gets the last snapshot of the search, safe to call from any thread
+     * @return where the search was when the snapshot was taken
+     */
+    SearchProgress snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Records the lookups the search made in one of its caches, so the
+     * SolverMonitor can show how well the cache is doing
+     * @param lookups the number of lookups
+     * @param hits the number of lookups that were hits
+     */
+    protected final void cacheUsed(long lookups, long hits) {
+        SolverMonitor.get().cacheUsed(lookups, hits);
+    }
+
+    /**
+     * Records that a layer of the search is done, which is one depth of a
+     * breadth first search or one bound of an iterative deepening, and
+     * starts timing the next one
+     * @param depth the depth of the layer that was expanded
+     * @param expanded the configs of the layer whose neighbors were made
+     * @param visited the distinct configs the engine has counted so far
+     */
+    protected final void layerDone(int depth, long expanded, long visited) {
+        SolverEvents.endLayer(layer, getStrategy(), depth, expanded, totalConfigs - layerStart, visited);
+        publish(System.nanoTime());
+        beginLayer();
+    }
+
+    /**
+     * Starts the event of the next layer of the search
+     */
+    private void beginLayer() {
+        layer = SolverEvents.beginLayer();
+        layerStart = totalConfigs;
+    }
+
+    /**
+     * Does the actual search, updating the config counts as it goes
+     * @param start the starting configuration of the puzzle
+     * @return the configs from the start to a solution, or null if there is no solution
+     */
+    protected abstract List<Configuration> explore(Configuration start);
+
+    /**
+     * Follows the predecessor links back from the finishing config
+     * @param predecessor maps each config to the config it came from,
+     *                    the starting config maps to null
+     * @param finish the last config of the path
+     * @return the configs in order from the start to the finish
+     */
+    protected static List<Configuration> buildPath(Map<Configuration, Configuration> predecessor,
+                                                   Configuration finish) {
+        PathEvent event = SolverEvents.beginPath();
+        List<Configuration> path = new ArrayList<>();
+        Configuration node = finish;
+        while (node != null) {
+            path.add(node);
+            node = predecessor.get(node);
+        }
+        Collections.reverse(path);
+        SolverEvents.endPath(event, path.size());
+        return path;
+    }
+
+    /**
+     * Follows parent ids back from the finishing config
+     * @param parents the id of the parent of each config, -1 for the starting config
+     * @param configOf turns an id back into its config
+     * @param finish the id of the last config of the path
+     * @return the configs in order from the start to the finish
+     */
+    protected static List<Configuration> buildPath(IntList parents, IntFunction<Configuration> configOf,
+                                                   int finish) {
+        PathEvent event = SolverEvents.beginPath();
+        List<Configuration> path = new ArrayList<>();
+        for (int id = finish; id >= 0; id = parents.get(id)) {
+            path.add(configOf.apply(id));
+        }
+        Collections.reverse(path);
+        SolverEvents.endPath(event, path.size());
+        return path;
+    }
+}
@@ -0,0 +1,78 @@
+package puzzles.common.solver;
+
+import puzzles.common.collections.IntList;
+import puzzles.common.collections.StateArena;
+
+import java.util.*;
+
+/**
+ * BFS that keeps every config it has seen packed into the bytes of a
+ * StateArena, for boards too big to pack into a long, such as a 9x9 chess
+ * board or an 11x11 Hoppers board. A seen config costs its packed bytes
+ * plus a few ints instead of a whole config object, and is only unpacked
+ * again when its id comes up to be expanded. Explores configs in the same
+ * order as BreadthFirstEngine, so it finds the same path with the same
+ * counts. Configurations that cannot be packed are handed to a normal BFS.
+ */
+public class ArenaBreadthFirstEngine extends AbstractSearchEngine {
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.ARENA_BFS;
+    }
+
+    @Override
+    public SearchResult search(Configuration start) {
+        if (StateCodec.of(start) == null) {
+            return handOff(new BreadthFirstEngine(), start);
+        }
+        return super.search(start);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        StateCodec codec = StateCodec.of(start);
+        StateArena seen = new StateArena(codec.size);
+        IntList parents = new IntList();
+        byte[] key = new byte[codec.size];
+        codec.write(start, key, 0);
+        seen.add(key, 0);
+        parents.add(-1);
+        Configuration current = start;
+        int next = 0;
+        // the depth of the config being expanded and the ids where its layer begins and ends
+        int depth = 0;
+        int layerBegin = 0;
+        int layerEnd = 1;
+        while (!current.isSolution()) {
+            if (next == layerEnd) {
+                layerDone(depth, layerEnd - layerBegin, seen.size());
+                depth += 1;
+                layerBegin = layerEnd;
+                layerEnd = seen.size();
+            }
+            progress(depth, seen.size() - next, seen.size());
+            int parent = next;
+            current.forEachNeighbor(neighbor -> {
+                totalConfigs += 1;
+                codec.write(neighbor, key, 0);
+                if (seen.add(key, 0) >= 0) {
+                    parents.add(parent);
+                }
+                return true;
+            });
+            next += 1;
+            if (next == seen.size()) {
+                uniqueConfigs = seen.size();
+                return null;
+            }
+            seen.get(next, key, 0);
+            current = codec.read(key, 0);
+        }
+        uniqueConfigs = seen.size();
+        return buildPath(parents, id -> {
+            byte[] bytes = new byte[codec.size];
+            seen.get(id, bytes, 0);
+            return codec.read(bytes, 0);
+        }, next);
+    }
+}
@@ -0,0 +1,29 @@
+package puzzles.common.solver;
+
+import java.util.Collection;
+
+/**
+ * A configuration whose puzzle can be searched backwards from a set of goal
+ * configurations, by undoing moves. Unlike ReversibleConfiguration the
+ * moves do not have to be undoable by other moves and there can be many
+ * goals, such as every cell the last piece of a Chess board could end up on.
+ */
+public interface BackwardConfiguration extends Configuration {
+    /**
+     * Gets every solved configuration that could be reached from this one,
+     * such as the boards with one piece left that was already on this board.
+     * The configs given back remember this board so that getPredecessors
+     * only makes boards with pieces that this board started with.
+     * @return the goal configurations
+     */
+    Collection<Configuration> getGoals();
+
+    /**
+     * Gets the configurations that have this one as a neighbor, by undoing
+     * each move that could have been made to reach it. Only pieces left over
+     * from the board that getGoals was called on can be put back, so a config
+     * that did not come from getGoals has no predecessors.
+     * @return the configs one move before this one
+     */
+    Collection<Configuration> getPredecessors();
+}
@@ -0,0 +1,108 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Two breadth first searches, one forwards from the start and one backwards
+ * from the goal, that expand a whole layer at a time until they meet. The
+ * side with the smaller frontier always goes next, so neither side grows
+ * much bigger than it has to. Each side only has to go about half of the
+ * way, so far fewer configs are seen than with a single BFS. Only works for
+ * reversible configurations that have a goal, anything else is handed to a
+ * normal BFS.
+ */
+public class BidirectionalEngine extends AbstractSearchEngine {
+    /**
+     * How a config was reached by one of the two searches
+     * @param parent the config it was reached from, null for the start or goal
+     * @param depth the number of moves from the start or goal
+     */
+    private record Visit(Configuration parent, int depth) {}
+
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.BIDIRECTIONAL;
+    }
+
+    @Override
+    public SearchResult search(Configuration start) {
+        if (!(start instanceof ReversibleConfiguration reversible) || reversible.getGoal() == null) {
+            return handOff(new BreadthFirstEngine(), start);
+        }
+        return super.search(start);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        Configuration goal = ((ReversibleConfiguration) start).getGoal();
+        if (start.isSolution()) {
+            return List.of(start);
+        }
+        Map<Configuration, Visit> forward = new HashMap<>();
+        Map<Configuration, Visit> backward = new HashMap<>();
+        forward.put(start, new Visit(null, 0));
+        backward.put(goal, new Visit(null, 0));
+        Queue<Configuration> forwardLayer = new ArrayDeque<>(List.of(start));
+        Queue<Configuration> backwardLayer = new ArrayDeque<>(List.of(goal));
+        Configuration meeting = null;
+        // the layers searched so far by both sides together
+        for (int layers = 0; meeting == null && !forwardLayer.isEmpty() && !backwardLayer.isEmpty(); layers++) {
+            int expanded;
+            if (forwardLayer.size() <= backwardLayer.size()) {
+                expanded = forwardLayer.size();
+                meeting = expandLayer(forwardLayer, forward, backward);
+            } else {
+                expanded = backwardLayer.size();
+                meeting = expandLayer(backwardLayer, backward, forward);
+            }
+            layerDone(layers, expanded, forward.size() + backward.size());
+        }
+        uniqueConfigs = forward.size() + backward.size();
+        if (meeting == null) {
+            return null;
+        }
+        List<Configuration> path = new ArrayList<>();
+        for (Configuration node = meeting; node != null; node = forward.get(node).parent()) {
+            path.add(node);
+        }
+        Collections.reverse(path);
+        for (Configuration node = backward.get(meeting).parent(); node != null;
+             node = backward.get(node).parent()) {
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Expands every config in one layer of a search. The whole layer is
+     * finished even after the searches meet so that the meeting point with
+     * the shortest total path is the one that gets picked.
+     * @param layer the configs at the deepest level of this search, replaced by the next level
+     * @param visited how every config was reached by this search
+     * @param other how every config was reached by the other search
+     * @return the config where the two searches meet, or null if they have not met yet
+     */
+    private Configuration expandLayer(Queue<Configuration> layer, Map<Configuration, Visit> visited,
+                                      Map<Configuration, Visit> other) {
+        Configuration meeting = null;
+        int best = Integer.MAX_VALUE;
+        int size = layer.size();
+        for (int i = 0; i < size; i++) {
+            Configuration current = layer.remove();
+            int depth = visited.get(current).depth() + 1;
+            progress(depth - 1, layer.size(), visited.size() + other.size());
+            for (Configuration neighbor : current.getNeighbors()) {
+                totalConfigs += 1;
+                if (visited.putIfAbsent(neighbor, new Visit(current, depth)) == null) {
+                    layer.offer(neighbor);
+                    Visit met = other.get(neighbor);
+                    if (met != null && depth + met.depth() < best) {
+                        best = depth + met.depth();
+                        meeting = neighbor;
+                    }
+                }
+            }
+        }
+        return meeting;
+    }
+}
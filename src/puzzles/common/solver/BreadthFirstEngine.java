@@ -0,0 +1,56 @@
+package puzzles.common.solver;
+
+import puzzles.common.collections.IdTable;
+import puzzles.common.collections.IntList;
+
+import java.util.*;
+
+/**
+ * BFS over the configurations. Every config ever seen is kept, which
+ * guarantees the path found is the shortest one. Configs are numbered
+ * in the order they are found and kept in an IdTable, with the id of
+ * each config's parent in an int list, so there is no map entry per
+ * config and the queue is just the next id to expand.
+ */
+public class BreadthFirstEngine extends AbstractSearchEngine {
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.BFS;
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        IdTable<Configuration> seen = new IdTable<>();
+        IntList parents = new IntList();
+        seen.add(start);
+        parents.add(-1);
+        int next = 0;
+        // the depth of the config being expanded and the ids where its layer begins and ends
+        int depth = 0;
+        int layerBegin = 0;
+        int layerEnd = 1;
+        while (next < seen.size() && !seen.get(next).isSolution()) {
+            if (next == layerEnd) {
+                layerDone(depth, layerEnd - layerBegin, seen.size());
+                depth += 1;
+                layerBegin = layerEnd;
+                layerEnd = seen.size();
+            }
+            progress(depth, seen.size() - next, seen.size());
+            int parent = next;
+            seen.get(next).forEachNeighbor(neighbor -> {
+                totalConfigs += 1;
+                if (seen.add(neighbor) >= 0) {
+                    parents.add(parent);
+                }
+                return true;
+            });
+            next += 1;
+        }
+        uniqueConfigs = seen.size();
+        if (next == seen.size()) {
+            return null;
+        }
+        return buildPath(parents, seen::get, next);
+    }
+}
@@ -0,0 +1,32 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can be written into a fixed number of bytes, for
+ * searches that keep their configs in files instead of on the heap. Unlike
+ * PackedConfiguration this works for boards of any size.
+ */
+public interface BytePackedConfiguration extends Configuration {
+    /**
+     * Gets the number of bytes a packed configuration takes. Every
+     * configuration reachable from this one takes the same number.
+     * @return the size of a packed configuration in bytes
+     */
+    int packedSize();
+
+    /**
+     * Writes this configuration into packedSize bytes of a buffer. Two
+     * configurations write the same bytes exactly when they are equal.
+     * @param buffer the buffer to write into
+     * @param offset where in the buffer to start writing
+     */
+    void packInto(byte[] buffer, int offset);
+
+    /**
+     * Reads a configuration written by packInto on this configuration
+     * or one reachable from it
+     * @param buffer the buffer to read from
+     * @param offset where in the buffer the configuration starts
+     * @return the configuration that was packed
+     */
+    Configuration unpackFrom(byte[] buffer, int offset);
+}
@@ -1,10 +1,28 @@
 package puzzles.common.solver;
 
 import java.util.Collection;
+import java.util.function.Predicate;
 
 public interface Configuration {
     boolean isSolution();
     Collection<Configuration> getNeighbors();
+
+    /**
+     * Hands the neighbors to a visitor one at a time, in the same order as
+     * getNeighbors, without collecting them first. The visitor can stop the
+     * walk early, for example once it finds a solution.
+     * @param visitor gets each neighbor, and returns false to stop
+     * @return true if every neighbor was visited, false if the visitor stopped early
+     */
+    default boolean forEachNeighbor(Predicate<Configuration> visitor) {
+        for (Configuration neighbor : getNeighbors()) {
+            if (!visitor.test(neighbor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     boolean equals(Object other);
     int hashCode();
     String toString();
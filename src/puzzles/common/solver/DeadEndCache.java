@@ -0,0 +1,64 @@
+package puzzles.common.solver;
+
+/**
+ * A fixed size table of configurations that are known to have no solution
+ * below them. Each config has one slot picked by its hash code and a new
+ * dead end simply replaces whatever was in its slot, so the table never
+ * grows past its capacity. Forgetting a dead end only costs the time to
+ * prove it dead again, it never changes the answer of a search.
+ */
+class DeadEndCache {
+    private final Configuration[] slots;
+    private final int mask;
+    private int size;
+
+    /**
+     * Makes an empty table
+     * @param capacity the most dead ends to remember, rounded up to a power of two
+     */
+    DeadEndCache(int capacity) {
+        int length = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new Configuration[length];
+        this.mask = length - 1;
+    }
+
+    /**
+     * Remembers a dead end, pushing out the dead end that shared its slot
+     * @param config the configuration that has no solution below it
+     */
+    void add(Configuration config) {
+        int slot = slotOf(config);
+        if (slots[slot] == null) {
+            size += 1;
+        }
+        slots[slot] = config;
+    }
+
+    /**
+     * Sees if a configuration is a remembered dead end
+     * @param config the configuration
+     * @return true if config is known to have no solution below it
+     */
+    boolean contains(Configuration config) {
+        Configuration found = slots[slotOf(config)];
+        return found != null && found.equals(config);
+    }
+
+    /**
+     * Gets the number of dead ends in the table
+     * @return the number of slots in use
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the slot of a configuration
+     * @param config the configuration
+     * @return the slot it goes in
+     */
+    private int slotOf(Configuration config) {
+        int hash = config.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,51 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * DFS over the configurations that stops at the first solution it reaches.
+ * Configs that were already seen are never expanded twice, but the path
+ * found is not guaranteed to be the shortest one.
+ */
+public class DepthFirstEngine extends AbstractSearchEngine {
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.DFS;
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        Set<Configuration> visited = new HashSet<>();
+        visited.add(start);
+        if (start.isSolution()) {
+            return List.of(start);
+        }
+        Deque<Configuration> path = new ArrayDeque<>();
+        Deque<Iterator<Configuration>> pending = new ArrayDeque<>();
+        path.push(start);
+        pending.push(start.getNeighbors().iterator());
+        while (!pending.isEmpty()) {
+            Iterator<Configuration> neighbors = pending.peek();
+            if (!neighbors.hasNext()) {
+                pending.pop();
+                path.pop();
+                continue;
+            }
+            Configuration next = neighbors.next();
+            totalConfigs += 1;
+            progress(path.size(), path.size(), visited.size());
+            if (visited.add(next)) {
+                path.push(next);
+                if (next.isSolution()) {
+                    uniqueConfigs = visited.size();
+                    List<Configuration> found = new ArrayList<>(path);
+                    Collections.reverse(found);
+                    return found;
+                }
+                pending.push(next.getNeighbors().iterator());
+            }
+        }
+        uniqueConfigs = visited.size();
+        return null;
+    }
+}
@@ -0,0 +1,534 @@
+package puzzles.common.solver;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * BFS that keeps its layers in files instead of on the heap, for puzzles
+ * whose reachable configs do not fit in memory. Every layer is a file of
+ * fixed size records, each a packed config followed by the index of its
+ * parent in the layer before, sorted by the packed config. A layer is
+ * expanded by reading its file from start to end. The neighbors are
+ * collected in a buffer that grows up to the memory budget and is kept
+ * from layer to layer, and every time the buffer is full it is sorted
+ * and written out as a run. Duplicates are only
+ * removed afterwards (delayed duplicate detection), when the runs are
+ * merged together and against the files of the earlier layers. Monotone
+ * puzzles can only repeat a config inside its own layer, so for them the
+ * earlier layers are never read again. The path is rebuilt by reading the
+ * parent index of one record per layer. The path found is a shortest one,
+ * though not always the same one BreadthFirstEngine prints. The disk traffic
+ * of every layer is kept in getLayerStats, and is also printed to System.err
+ * as each layer is made if the "solver.verbose" system property is true.
+ * Configurations that cannot be packed are handed to a normal BFS.
+ */
+public class ExternalBreadthFirstEngine extends AbstractSearchEngine {
+    /** the memory budget in megabytes when the "solver.memoryMB" system property is not set */
+    private static final int DEFAULT_MEMORY_MB = 64;
+    /** the bytes of the parent index after each packed config */
+    private static final int PARENT_BYTES = Integer.BYTES;
+    /** the size of the buffer of every file read or written */
+    private static final int IO_BUFFER = 1 << 16;
+    /** the records the sort buffer starts with, it doubles from there as layers need it */
+    private static final int INITIAL_RECORDS = 1 << 12;
+    /** true to print the stats of every layer as it is made */
+    private static final boolean VERBOSE = Boolean.getBoolean("solver.verbose");
+
+    private final Path directory;
+    private final long memoryBudget;
+    private final List<LayerStats> layerStats = new ArrayList<>();
+    /** the neighbors waiting to be sorted, grown up to the memory budget and kept for the whole search */
+    private byte[] buffer;
+    /** the bytes read and written for the layer being made */
+    private long bytesRead;
+    private long bytesWritten;
+
+    /**
+     * The disk traffic of making one layer of the search
+     * @param depth the depth of the layer that was made
+     * @param configs the number of new configs in the layer
+     * @param bytesRead the bytes read from disk to make it
+     * @param bytesWritten the bytes written to disk to make it
+     */
+    public record LayerStats(int depth, long configs, long bytesRead, long bytesWritten) {
+        @Override
+        public String toString() {
+            return "Layer " + depth + ": " + configs + " configs, "
+                    + bytesRead + " bytes read, " + bytesWritten + " bytes written";
+        }
+    }
+
+    /**
+     * Makes an engine that keeps its files in the directory of the "solver.tmpdir"
+     * system property, or the system temporary directory if it is not set, and
+     * uses the number of megabytes in the "solver.memoryMB" system property
+     */
+    public ExternalBreadthFirstEngine() {
+        this(Path.of(System.getProperty("solver.tmpdir", System.getProperty("java.io.tmpdir"))),
+                Integer.getInteger("solver.memoryMB", DEFAULT_MEMORY_MB) * (1L << 20));
+    }
+
+    /**
+     * Makes an engine with the given directory and memory budget
+     * @param directory where to make the directory of layer files
+     * @param memoryBudget about how many bytes of neighbors to sort in memory at once
+     */
+    public ExternalBreadthFirstEngine(Path directory, long memoryBudget) {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("memory budget must be positive: " + memoryBudget);
+        }
+        this.directory = directory;
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.EXTERNAL_BFS;
+    }
+
+    /**
+     * Gets the disk traffic of each layer of the last search
+     * @return the stats of each layer, in order of depth
+     */
+    public List<LayerStats> getLayerStats() {
+        return Collections.unmodifiableList(layerStats);
+    }
+
+    @Override
+    public SearchResult search(Configuration start) {
+        if (StateCodec.of(start) == null) {
+            return handOff(new BreadthFirstEngine(), start);
+        }
+        layerStats.clear();
+        return super.search(start);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        StateCodec codec = StateCodec.of(start);
+        Path work = null;
+        try {
+            work = Files.createTempDirectory(directory, "bfs");
+            int recordSize = codec.size + PARENT_BYTES;
+            byte[] record = new byte[recordSize];
+            codec.write(start, record, 0);
+            putInt(record, codec.size, -1);
+            try (DataOutputStream out = writer(layerFile(work, 0))) {
+                out.write(record);
+            }
+            boolean monotone = start instanceof MonotoneConfiguration;
+            for (int depth = 0; ; depth++) {
+                bytesRead = 0;
+                bytesWritten = 0;
+                List<Path> runs = new ArrayList<>();
+                int solution = expand(work, depth, codec, runs);
+                if (solution >= 0) {
+                    return rebuildPath(work, depth, solution, codec);
+                }
+                long configs = merge(work, depth + 1, codec, runs, monotone);
+                layerStats.add(new LayerStats(depth + 1, configs, bytesRead, bytesWritten));
+                if (VERBOSE) {
+                    System.err.println(layerStats.get(layerStats.size() - 1));
+                }
+                if (configs == 0) {
+                    return null;
+                }
+                uniqueConfigs += configs;
+                layerDone(depth, depth == 0 ? 1 : layerStats.get(depth - 1).configs(), uniqueConfigs);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer = null;
+            delete(work);
+        }
+    }
+
+    /**
+     * Reads a layer file, stopping at the first solution, and writes
+     * the neighbors of its configs out as sorted runs
+     * @param work the directory of layer files
+     * @param depth the depth of the layer to expand
+     * @param codec how configs are packed
+     * @param runs gets the files of the runs written
+     * @return the index of the first solution in the layer, or -1 if there is none
+     * @throws IOException if a file cannot be read or written
+     */
+    private int expand(Path work, int depth, StateCodec codec, List<Path> runs) throws IOException {
+        int recordSize = codec.size + PARENT_BYTES;
+        int capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE / recordSize,
+                memoryBudget / (recordSize + Integer.BYTES)));
+        if (buffer == null) {
+            buffer = new byte[Math.min(capacity, INITIAL_RECORDS) * recordSize];
+        }
+        byte[] record = new byte[recordSize];
+        int filled = 0;
+        try (DataInputStream in = reader(layerFile(work, depth))) {
+            long layerSize = depth == 0 ? 1 : layerStats.get(depth - 1).configs();
+            for (int index = 0; readRecord(in, record); index++) {
+                progress(depth, layerSize - index, uniqueConfigs);
+                Configuration current = codec.read(record, 0);
+                if (current.isSolution()) {
+                    return index;
+                }
+                for (Configuration neighbor : current.getNeighbors()) {
+                    totalConfigs += 1;
+                    if ((filled + 1) * recordSize > buffer.length) {
+                        buffer = Arrays.copyOf(buffer, Math.min(capacity, 2 * filled) * recordSize);
+                    }
+                    codec.write(neighbor, buffer, filled * recordSize);
+                    putInt(buffer, filled * recordSize + codec.size, index);
+                    filled += 1;
+                    if (filled == capacity) {
+                        runs.add(spill(work, depth + 1, runs.size(), buffer, filled, codec.size));
+                        filled = 0;
+                    }
+                }
+            }
+        }
+        if (filled > 0) {
+            runs.add(spill(work, depth + 1, runs.size(), buffer, filled, codec.size));
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts the records in the buffer by config and writes them to a run
+     * file, keeping only the first record of each config
+     * @param work the directory of layer files
+     * @param depth the depth of the layer the run is part of
+     * @param number the number of the run in its layer
+     * @param buffer the records
+     * @param count the number of records in the buffer
+     * @param keySize the bytes of a packed config
+     * @return the run file
+     * @throws IOException if the file cannot be written
+     */
+    private Path spill(Path work, int depth, int number, byte[] buffer, int count, int keySize)
+            throws IOException {
+        int recordSize = keySize + PARENT_BYTES;
+        int[] order = new int[count];
+        for (int index = 0; index < count; index++) {
+            order[index] = index;
+        }
+        sort(order, buffer, recordSize, keySize);
+        Path run = work.resolve("run-" + depth + "-" + number + ".bin");
+        try (DataOutputStream out = writer(run)) {
+            int last = -1;
+            for (int index : order) {
+                if (last < 0 || compare(buffer, last * recordSize, buffer, index * recordSize, keySize) != 0) {
+                    out.write(buffer, index * recordSize, recordSize);
+                    last = index;
+                }
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Merges the runs of a layer into the layer file, dropping configs seen
+     * more than once in the runs or already in an earlier layer
+     * @param work the directory of layer files
+     * @param depth the depth of the layer being made
+     * @param codec how configs are packed
+     * @param runs the sorted runs of the layer
+     * @param monotone true if configs can only repeat inside their own layer
+     * @return the number of configs in the new layer
+     * @throws IOException if a file cannot be read or written
+     */
+    private long merge(Path work, int depth, StateCodec codec, List<Path> runs, boolean monotone)
+            throws IOException {
+        int recordSize = codec.size + PARENT_BYTES;
+        List<RunReader> readers = new ArrayList<>();
+        List<RunReader> earlier = new ArrayList<>();
+        long configs = 0;
+        try {
+            // runs made earlier have lower parent indexes, so they win ties
+            PriorityQueue<RunReader> heads = new PriorityQueue<>((first, second) -> {
+                int byConfig = compare(first.record, 0, second.record, 0, codec.size);
+                return byConfig != 0 ? byConfig : Integer.compare(first.number, second.number);
+            });
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run, readers.size(), recordSize);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+            if (!monotone) {
+                for (int previous = 0; previous < depth; previous++) {
+                    RunReader reader = new RunReader(layerFile(work, previous), previous, recordSize);
+                    earlier.add(reader);
+                    reader.advance();
+                }
+            }
+            byte[] last = null;
+            try (DataOutputStream out = writer(layerFile(work, depth))) {
+                while (!heads.isEmpty()) {
+                    RunReader head = heads.poll();
+                    byte[] record = head.record.clone();
+                    if (head.advance()) {
+                        heads.add(head);
+                    }
+                    if (last != null && compare(last, 0, record, 0, codec.size) == 0) {
+                        continue;
+                    }
+                    last = record;
+                    if (!seenBefore(earlier, record, codec.size)) {
+                        out.write(record);
+                        configs += 1;
+                    }
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+            for (RunReader reader : earlier) {
+                reader.close();
+            }
+        }
+        for (Path run : runs) {
+            Files.delete(run);
+        }
+        return configs;
+    }
+
+    /**
+     * Sees if a config is in one of the earlier layers, moving each
+     * layer's reader forward up to the config
+     * @param earlier the readers of the earlier layers
+     * @param record the record of the config
+     * @param keySize the bytes of a packed config
+     * @return true if the config was in an earlier layer
+     * @throws IOException if a file cannot be read
+     */
+    private static boolean seenBefore(List<RunReader> earlier, byte[] record, int keySize) throws IOException {
+        boolean found = false;
+        for (RunReader reader : earlier) {
+            int order = -1;
+            while (reader.hasRecord && (order = compare(reader.record, 0, record, 0, keySize)) < 0) {
+                reader.advance();
+            }
+            found |= reader.hasRecord && order == 0;
+        }
+        return found;
+    }
+
+    /**
+     * Follows the parent indexes back from a solution through the layer files
+     * @param work the directory of layer files
+     * @param depth the depth of the solution
+     * @param index where the solution is in its layer
+     * @param codec how configs are packed
+     * @return the configs in order from the start to the solution
+     * @throws IOException if a file cannot be read
+     */
+    private List<Configuration> rebuildPath(Path work, int depth, int index, StateCodec codec) throws IOException {
+        PathEvent event = SolverEvents.beginPath();
+        int recordSize = codec.size + PARENT_BYTES;
+        byte[] record = new byte[recordSize];
+        List<Configuration> path = new ArrayList<>();
+        for (int layer = depth; layer >= 0; layer--) {
+            try (RandomAccessFile file = new RandomAccessFile(layerFile(work, layer).toFile(), "r")) {
+                file.seek((long) index * recordSize);
+                file.readFully(record);
+            }
+            bytesRead += recordSize;
+            path.add(codec.read(record, 0));
+            index = getInt(record, codec.size);
+        }
+        Collections.reverse(path);
+        SolverEvents.endPath(event, path.size());
+        return path;
+    }
+
+    /**
+     * Stable merge sort of record numbers by the packed configs of the records
+     * @param order the record numbers to sort
+     * @param buffer the records
+     * @param recordSize the bytes of a record
+     * @param keySize the bytes of the packed config at the start of a record
+     */
+    private static void sort(int[] order, byte[] buffer, int recordSize, int keySize) {
+        int[] from = order;
+        int[] to = new int[order.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int low = 0; low < order.length; low += 2 * width) {
+                int middle = Math.min(low + width, order.length);
+                int high = Math.min(low + 2 * width, order.length);
+                int left = low;
+                int right = middle;
+                for (int out = low; out < high; out++) {
+                    if (left < middle && (right >= high || compare(buffer, from[left] * recordSize,
+                            buffer, from[right] * recordSize, keySize) <= 0)) {
+                        to[out] = from[left++];
+                    } else {
+                        to[out] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, order.length);
+        }
+    }
+
+    /**
+     * Compares two packed configs byte by byte
+     * @return negative, zero or positive as the first is before, the same as or after the second
+     */
+    private static int compare(byte[] first, int firstOffset, byte[] second, int secondOffset, int keySize) {
+        return Arrays.compareUnsigned(first, firstOffset, firstOffset + keySize,
+                second, secondOffset, secondOffset + keySize);
+    }
+
+    /**
+     * Reads one record, counting the bytes read
+     * @param in the file being read
+     * @param record gets the record
+     * @return false if the end of the file was reached
+     * @throws IOException if the file cannot be read
+     */
+    private boolean readRecord(DataInputStream in, byte[] record) throws IOException {
+        try {
+            in.readFully(record);
+        } catch (EOFException e) {
+            return false;
+        }
+        bytesRead += record.length;
+        return true;
+    }
+
+    /**
+     * Gets the file of a layer
+     * @param work the directory of layer files
+     * @param depth the depth of the layer
+     * @return the layer file
+     */
+    private static Path layerFile(Path work, int depth) {
+        return work.resolve("layer-" + depth + ".bin");
+    }
+
+    /**
+     * Opens a buffered file for reading
+     * @param file the file
+     * @return the stream to read it with
+     * @throws IOException if the file cannot be opened
+     */
+    private static DataInputStream reader(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IO_BUFFER));
+    }
+
+    /**
+     * Opens a buffered file for writing that counts the bytes written
+     * @param file the file
+     * @return the stream to write it with
+     * @throws IOException if the file cannot be made
+     */
+    private DataOutputStream writer(Path file) throws IOException {
+        OutputStream counted = new FilterOutputStream(Files.newOutputStream(file)) {
+            /** the bytes written, a long because run files can go past 2 GB */
+            private long count;
+
+            @Override
+            public void write(int value) throws IOException {
+                out.write(value);
+                count += 1;
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+                count += length;
+            }
+
+            @Override
+            public void close() throws IOException {
+                bytesWritten += count;
+                super.close();
+            }
+        };
+        return new DataOutputStream(new BufferedOutputStream(counted, IO_BUFFER));
+    }
+
+    /**
+     * Deletes the directory of layer files and everything in it
+     * @param work the directory, or null if it was never made
+     */
+    private static void delete(Path work) {
+        if (work == null) {
+            return;
+        }
+        File[] files = work.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        work.toFile().delete();
+    }
+
+    /**
+     * Writes an int into four bytes of a buffer, high byte first
+     */
+    private static void putInt(byte[] buffer, int offset, int value) {
+        for (int index = 0; index < Integer.BYTES; index++) {
+            buffer[offset + index] = (byte) (value >>> (8 * (Integer.BYTES - 1 - index)));
+        }
+    }
+
+    /**
+     * Reads an int written by putInt
+     */
+    private static int getInt(byte[] buffer, int offset) {
+        int value = 0;
+        for (int index = 0; index < Integer.BYTES; index++) {
+            value = (value << 8) | (buffer[offset + index] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Reads the records of a sorted file one at a time
+     */
+    private class RunReader implements Closeable {
+        private final DataInputStream in;
+        private final int number;
+        private final byte[] record;
+        private boolean hasRecord;
+
+        /**
+         * Opens a file of records
+         * @param file the file
+         * @param number the order of the file, used to break ties
+         * @param recordSize the bytes of a record
+         * @throws IOException if the file cannot be opened
+         */
+        RunReader(Path file, int number, int recordSize) throws IOException {
+            this.in = reader(file);
+            this.number = number;
+            this.record = new byte[recordSize];
+        }
+
+        /**
+         * Moves to the next record
+         * @return false if there are no more records
+         * @throws IOException if the file cannot be read
+         */
+        boolean advance() throws IOException {
+            hasRecord = readRecord(in, record);
+            return hasRecord;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
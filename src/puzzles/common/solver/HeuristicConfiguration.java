@@ -0,0 +1,28 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can estimate how many moves are left to a solution,
+ * which lets A* head towards the goal instead of searching blindly.
+ */
+public interface HeuristicConfiguration extends Configuration {
+    /**
+     * Estimates the moves left from this configuration to a solution. The
+     * estimate must never be more than the real number of moves (it must be
+     * admissible), otherwise A* can miss the shortest path.
+     * @return a lower bound on the moves left
+     */
+    int estimateCost();
+
+    /**
+     * Estimates the moves left from any configuration, which is zero
+     * for configurations that cannot estimate it themselves
+     * @param config the configuration to estimate from
+     * @return a lower bound on the moves left
+     */
+    static int estimateOf(Configuration config) {
+        if (config instanceof HeuristicConfiguration heuristic) {
+            return heuristic.estimateCost();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,24 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for a model working out a hint, from the
+ * search through to telling its observers the result
+ */
+@Name("puzzles.Hint")
+@Label("Hint")
+@Category({"Puzzles", "Model"})
+public class HintEvent extends Event {
+    @Label("Puzzle")
+    String puzzle;
+
+    @Label("Solved")
+    boolean solved;
+
+    @Label("Unique Configs")
+    long uniqueConfigs;
+}
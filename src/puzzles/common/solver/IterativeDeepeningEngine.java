@@ -0,0 +1,176 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Iterative deepening DFS, or IDA* when the configurations can estimate the
+ * moves left with HeuristicConfiguration. Runs depth first searches that cut
+ * off any config whose moves so far plus estimate is over a bound, raising
+ * the bound to the smallest value that was cut off each time, so the first
+ * solution found is a shortest one. With no estimate the bound is just the
+ * depth and grows by one each time. Only the configs on the current path are
+ * remembered, plus a fixed size transposition cache of configs that were
+ * already searched in the current iteration, whose size is set by the
+ * "solver.transpositions" system property (0 turns it off). The configs
+ * expanded by each iteration are kept in getIterationStats, since every
+ * iteration expands again all the configs of the ones before it, and are
+ * also printed to System.err if the "solver.verbose" system property is true.
+ */
+public class IterativeDeepeningEngine extends AbstractSearchEngine {
+    /** the number of configs cached when the "solver.transpositions" system property is not set */
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    /** what search gives back when it found a solution */
+    private static final int FOUND = -1;
+    /** true to print the stats of every iteration as it finishes */
+    private static final boolean VERBOSE = Boolean.getBoolean("solver.verbose");
+
+    /**
+     * What one iteration of the search did
+     * @param iteration the number of the iteration, starting at 1
+     * @param bound the most moves plus estimate a config could have
+     * @param expanded the configs whose neighbors were made in this iteration
+     * @param cumulative the configs expanded in this iteration and all the ones before it
+     * @param cacheHits the configs skipped because the transposition cache had them
+     */
+    public record IterationStats(int iteration, int bound, long expanded, long cumulative, long cacheHits) {
+        /**
+         * Gets how many times more configs were expanded in total than in
+         * this iteration alone, which is the cost of not remembering them
+         * @return the total expanded so far divided by the expanded in this iteration
+         */
+        public double overhead() {
+            return expanded == 0 ? 1 : (double) cumulative / expanded;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Iteration %d: bound %d, %d expanded, %d in total (%.2fx), %d cache hits",
+                    iteration, bound, expanded, cumulative, overhead(), cacheHits);
+        }
+    }
+
+    private final int capacity;
+    private final List<IterationStats> iterationStats = new ArrayList<>();
+    private TranspositionCache cache;
+    /** the configs expanded and the cache hits in the current iteration */
+    private long expanded;
+    private long cacheHits;
+
+    /**
+     * Makes an engine with a transposition cache of the size in the
+     * "solver.transpositions" system property, or the default size if it is not set
+     */
+    public IterativeDeepeningEngine() {
+        this(Integer.getInteger("solver.transpositions", DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Makes an engine with the given size of transposition cache
+     * @param capacity the most configs to cache, or 0 for no cache
+     */
+    public IterativeDeepeningEngine(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.ITERATIVE_DEEPENING;
+    }
+
+    /**
+     * Gets what each iteration of the last search did
+     * @return the stats of each iteration, in order
+     */
+    public List<IterationStats> getIterationStats() {
+        return Collections.unmodifiableList(iterationStats);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        iterationStats.clear();
+        cache = capacity > 0 ? new TranspositionCache(capacity) : null;
+        Deque<Configuration> path = new ArrayDeque<>();
+        Set<Configuration> onPath = new HashSet<>();
+        long cumulative = 0;
+        int bound = HeuristicConfiguration.estimateOf(start);
+        for (int iteration = 1; ; iteration++) {
+            expanded = 0;
+            cacheHits = 0;
+            path.clear();
+            onPath.clear();
+            int next = search(start, 0, bound, path, onPath);
+            cumulative += expanded;
+            iterationStats.add(new IterationStats(iteration, bound, expanded, cumulative, cacheHits));
+            if (VERBOSE) {
+                System.err.println(iterationStats.get(iterationStats.size() - 1));
+            }
+            if (cache != null) {
+                uniqueConfigs = Math.max(uniqueConfigs, cache.size());
+            }
+            layerDone(bound, expanded, uniqueConfigs);
+            if (cache != null) {
+                cacheUsed(expanded + cacheHits, cacheHits);
+            }
+            if (next == FOUND) {
+                List<Configuration> found = new ArrayList<>(path);
+                Collections.reverse(found);
+                return found;
+            }
+            if (next == Integer.MAX_VALUE) {
+                return null;
+            }
+            bound = next;
+        }
+    }
+
+    /**
+     * Searches below the given config, cutting off every config whose
+     * moves so far plus estimate is over the bound
+     * @param current the config being searched from
+     * @param cost the number of moves made to reach the current config
+     * @param bound the most moves plus estimate a config can have
+     * @param path the configs from the start to the current config, the current config is added on top
+     * @param onPath the configs on the path, used so that the search never goes in a cycle
+     * @return FOUND if a solution was found, in which case the path ends with it, otherwise the
+     *         smallest moves plus estimate over the bound, or Integer.MAX_VALUE if nothing was cut off
+     */
+    private int search(Configuration current, int cost, int bound,
+                       Deque<Configuration> path, Set<Configuration> onPath) {
+        int estimate = cost + HeuristicConfiguration.estimateOf(current);
+        if (estimate > bound) {
+            return estimate;
+        }
+        path.push(current);
+        onPath.add(current);
+        uniqueConfigs = Math.max(uniqueConfigs, path.size());
+        if (current.isSolution()) {
+            return FOUND;
+        }
+        int next = cache == null ? -1 : cache.lookup(current, cost, bound);
+        if (next >= 0) {
+            cacheHits += 1;
+        } else {
+            expanded += 1;
+            progress(cost, path.size(), cache == null ? path.size() : cache.size());
+            next = Integer.MAX_VALUE;
+            for (Configuration neighbor : current.getNeighbors()) {
+                totalConfigs += 1;
+                if (!onPath.contains(neighbor)) {
+                    int found = search(neighbor, cost + 1, bound, path, onPath);
+                    if (found == FOUND) {
+                        return FOUND;
+                    }
+                    next = Math.min(next, found);
+                }
+            }
+            if (cache != null) {
+                cache.add(current, cost, bound, next);
+            }
+        }
+        onPath.remove(path.pop());
+        return next;
+    }
+}
@@ -0,0 +1,35 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for expanding one layer of a search, which is
+ * one depth of a breadth first search or one bound of an iterative deepening
+ */
+@Name("puzzles.Layer")
+@Label("Layer Expansion")
+@Category({"Puzzles", "Solver"})
+@Description("Expanding one depth layer of a search")
+class LayerEvent extends Event {
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Expanded")
+    @Description("The configs of the layer whose neighbors were made")
+    long expanded;
+
+    @Label("Generated")
+    @Description("The configs made while expanding the layer, including duplicates")
+    long generated;
+
+    @Label("Visited")
+    @Description("The distinct configs counted once the layer was done")
+    long visited;
+}
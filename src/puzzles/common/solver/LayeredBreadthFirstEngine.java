@@ -0,0 +1,137 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * BFS for monotone puzzles, where every move goes down one layer. A config
+ * can only be found again inside its own layer, so only the layer being
+ * built needs a visited set, and the configs of a layer are let go as soon
+ * as the next layer is built. All that is kept of a finished layer is a
+ * trail with one long per config: the index of its parent in the layer
+ * before (high half) and which of the parent's neighbors it is (low half).
+ * The path is rebuilt by following the trail back to the start and then
+ * replaying those moves forwards. Layers come out in the same order as the
+ * queue of BreadthFirstEngine, so the path is the same one it finds, but
+ * the search stops as soon as that solution is made instead of when it
+ * reaches the front of the queue.
+ * Configurations that are not monotone are handed to a normal BFS.
+ */
+public class LayeredBreadthFirstEngine extends AbstractSearchEngine {
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.LAYERED_BFS;
+    }
+
+    @Override
+    public SearchResult search(Configuration start) {
+        if (!(start instanceof MonotoneConfiguration)) {
+            return handOff(new BreadthFirstEngine(), start);
+        }
+        return super.search(start);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        if (start.isSolution()) {
+            return List.of(start);
+        }
+        List<long[]> trails = new ArrayList<>();
+        List<Configuration> layer = List.of(start);
+        while (!layer.isEmpty()) {
+            NextLayer next = new NextLayer(layer);
+            for (int parent = 0; parent < layer.size() && next.solution < 0; parent++) {
+                progress(trails.size(), layer.size() - parent, uniqueConfigs + next.configs.size());
+                next.parent = parent;
+                next.move = 0;
+                layer.get(parent).forEachNeighbor(next);
+            }
+            trails.add(Arrays.copyOf(next.trail, next.configs.size()));
+            uniqueConfigs += next.configs.size();
+            layerDone(trails.size() - 1, layer.size(), uniqueConfigs);
+            if (next.solution >= 0) {
+                return replay(start, trails, next.solution);
+            }
+            layer = next.configs;
+        }
+        return null;
+    }
+
+    /**
+     * The layer being built, which is handed the neighbors of each config
+     * of the layer before in turn. The first solution it is handed is the
+     * first one in queue order, so building stops right there.
+     */
+    private class NextLayer implements Predicate<Configuration> {
+        /** the layer before, whose configs are being expanded */
+        private final List<Configuration> previous;
+        private final Set<Configuration> seen = new HashSet<>();
+        private final List<Configuration> configs = new ArrayList<>();
+        private long[] trail = new long[16];
+        /** the index of the config being expanded in the layer before */
+        private int parent;
+        /** which of the parent's neighbors comes next */
+        private int move;
+        /** where the first solution is in this layer, or -1 if none was found yet */
+        private int solution = -1;
+
+        /**
+         * Makes an empty layer to be built from the layer before
+         * @param previous the configs of the layer before
+         */
+        NextLayer(List<Configuration> previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public boolean test(Configuration neighbor) {
+            totalConfigs += 1;
+            if (seen.add(neighbor)) {
+                // the layer before is let go, so a neighbor outside the layer below it would be found again
+                MonotoneDepthFirstEngine.checkLayer(previous.get(parent), neighbor);
+                if (configs.size() == trail.length) {
+                    trail = Arrays.copyOf(trail, trail.length * 2);
+                }
+                trail[configs.size()] = ((long) parent << 32) | move;
+                configs.add(neighbor);
+                if (neighbor.isSolution()) {
+                    solution = configs.size() - 1;
+                    return false;
+                }
+            }
+            move += 1;
+            return true;
+        }
+    }
+
+    /**
+     * Follows the trail back from a solution to find the moves
+     * that reach it, then makes those moves from the start
+     * @param start the starting configuration of the puzzle
+     * @param trails the trail of every layer after the start
+     * @param index where the solution is in the last layer
+     * @return the configs in order from the start to the solution
+     */
+    private static List<Configuration> replay(Configuration start, List<long[]> trails, int index) {
+        PathEvent event = SolverEvents.beginPath();
+        int[] moves = new int[trails.size()];
+        for (int depth = trails.size() - 1; depth >= 0; depth--) {
+            long step = trails.get(depth)[index];
+            moves[depth] = (int) step;
+            index = (int) (step >>> 32);
+        }
+        List<Configuration> path = new ArrayList<>();
+        Configuration current = start;
+        path.add(current);
+        for (int move : moves) {
+            Iterator<Configuration> neighbors = current.getNeighbors().iterator();
+            for (int skip = 0; skip < move; skip++) {
+                neighbors.next();
+            }
+            current = neighbors.next();
+            path.add(current);
+        }
+        SolverEvents.endPath(event, path.size());
+        return path;
+    }
+}
@@ -0,0 +1,164 @@
+package puzzles.common.solver;
+
+import puzzles.common.collections.MappedStateTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * BFS whose visited set, predecessors and queue all live in a memory mapped
+ * MappedStateTable instead of on the heap. States are numbered in the order
+ * they are found, so the queue is just the next index to expand. Explores
+ * configs in the same order as BreadthFirstEngine, so it finds the same
+ * path with the same counts. The table is deleted after the search unless
+ * the "solver.keepTable" system property is true, in which case it is left
+ * in its directory so it can be opened again with MappedStateTable.open.
+ * Configurations that cannot be packed are handed to a normal BFS.
+ */
+public class MappedBreadthFirstEngine extends AbstractSearchEngine {
+    private final Path directory;
+    private final boolean keepTable;
+
+    /**
+     * Makes an engine that keeps its table in the directory of the "solver.tmpdir"
+     * system property, or the system temporary directory if it is not set
+     */
+    public MappedBreadthFirstEngine() {
+        this(Path.of(System.getProperty("solver.tmpdir", System.getProperty("java.io.tmpdir"))),
+                Boolean.getBoolean("solver.keepTable"));
+    }
+
+    /**
+     * Makes an engine with the given directory
+     * @param directory where to make the directory of the table
+     * @param keepTable true to leave the table's files behind after the search
+     */
+    public MappedBreadthFirstEngine(Path directory, boolean keepTable) {
+        this.directory = directory;
+        this.keepTable = keepTable;
+    }
+
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.MAPPED_BFS;
+    }
+
+    @Override
+    public SearchResult search(Configuration start) {
+        if (StateCodec.of(start) == null) {
+            return handOff(new BreadthFirstEngine(), start);
+        }
+        return super.search(start);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        StateCodec codec = StateCodec.of(start);
+        byte[] key = new byte[codec.size];
+        Path work = null;
+        try {
+            work = Files.createTempDirectory(directory, "states");
+            try (MappedStateTable table = MappedStateTable.create(work, codec.size)) {
+                codec.write(start, key, 0);
+                table.add(key, 0, -1);
+                // the depth of the config being expanded and the indexes where its layer begins and ends
+                int depth = 0;
+                long layerBegin = 0;
+                long layerEnd = 1;
+                for (long index = 0; index < table.size(); index++) {
+                    if (index == layerEnd) {
+                        layerDone(depth, layerEnd - layerBegin, table.size());
+                        depth += 1;
+                        layerBegin = layerEnd;
+                        layerEnd = table.size();
+                    }
+                    progress(depth, table.size() - index, table.size());
+                    table.getKey(index, key, 0);
+                    Configuration current = codec.read(key, 0);
+                    if (current.isSolution()) {
+                        uniqueConfigs = table.size();
+                        return rebuildPath(table, index, codec);
+                    }
+                    long parent = index;
+                    current.forEachNeighbor(neighbor -> {
+                        totalConfigs += 1;
+                        codec.write(neighbor, key, 0);
+                        try {
+                            table.add(key, 0, parent);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return true;
+                    });
+                }
+                uniqueConfigs = table.size();
+                return null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (keepTable && work != null) {
+                System.err.println("State table kept in " + work);
+            } else {
+                delete(work);
+            }
+        }
+    }
+
+    /**
+     * Follows the parent indexes in the table back from a solution
+     * @param table the table of states
+     * @param index the index of the solution
+     * @param codec how configs are packed
+     * @return the configs in order from the start to the solution
+     * @throws IOException if the table cannot be read
+     */
+    private static List<Configuration> rebuildPath(MappedStateTable table, long index, StateCodec codec)
+            throws IOException {
+        PathEvent event = SolverEvents.beginPath();
+        byte[] key = new byte[codec.size];
+        List<Configuration> path = new ArrayList<>();
+        while (index >= 0) {
+            table.getKey(index, key, 0);
+            path.add(codec.read(key, 0));
+            index = table.getParent(index);
+        }
+        Collections.reverse(path);
+        SolverEvents.endPath(event, path.size());
+        return path;
+    }
+
+    /**
+     * Deletes the directory of the table and everything in it. Some systems
+     * (Windows) will not delete a file that is still mapped, and the table's
+     * mappings are only let go by the garbage collector, so anything left
+     * is deleted when the program exits instead.
+     * @param work the directory, or null if it was never made
+     */
+    private static void delete(Path work) {
+        if (work == null) {
+            return;
+        }
+        List<File> left = new ArrayList<>();
+        File[] files = work.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    left.add(file);
+                }
+            }
+        }
+        if (!work.toFile().delete()) {
+            // deleteOnExit works backwards, so marking the directory first deletes it last
+            work.toFile().deleteOnExit();
+            for (File file : left) {
+                file.deleteOnExit();
+            }
+            System.err.println("State table in " + work + " is still mapped, it will be deleted on exit");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A breadth first search forwards from the start and another backwards from
+ * every goal, made by undoing moves, that expand a whole layer at a time
+ * until they meet. Undoing a move usually has many more choices than making
+ * one, so the side that goes next is the one whose next layer should be the
+ * smaller, guessed from its frontier and how much it grew the last time. For monotone configurations every path is
+ * the same length, so once the two frontiers reach the same layer without
+ * meeting there is no solution and the search stops right there.
+ * Configurations that cannot be searched backwards are handed to a normal BFS.
+ */
+public class MeetInTheMiddleEngine extends AbstractSearchEngine {
+    /** the layers searched so far by both sides together */
+    private int layersSearched;
+
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.MEET_IN_THE_MIDDLE;
+    }
+
+    @Override
+    public SearchResult search(Configuration start) {
+        if (!(start instanceof BackwardConfiguration)) {
+            return handOff(new BreadthFirstEngine(), start);
+        }
+        return super.search(start);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        if (start.isSolution()) {
+            return List.of(start);
+        }
+        // each config maps to the config one step closer to the start or to a goal, null for the start and goals
+        Map<Configuration, Configuration> forward = new HashMap<>();
+        Map<Configuration, Configuration> backward = new HashMap<>();
+        forward.put(start, null);
+        List<Configuration> forwardLayer = List.of(start);
+        List<Configuration> backwardLayer = new ArrayList<>();
+        for (Configuration goal : ((BackwardConfiguration) start).getGoals()) {
+            totalConfigs += 1;
+            if (!backward.containsKey(goal)) {
+                backward.put(goal, null);
+                backwardLayer.add(goal);
+            }
+        }
+        // how many times bigger the last layer of each side was than the one before, guessed as 1 at first
+        double forwardGrowth = 1;
+        double backwardGrowth = 1;
+        Configuration meeting = null;
+        layersSearched = 0;
+        while (meeting == null && !forwardLayer.isEmpty() && !backwardLayer.isEmpty()
+                && !crossed(forwardLayer, backwardLayer)) {
+            List<Configuration> next = new ArrayList<>();
+            int expanded;
+            if (forwardLayer.size() * forwardGrowth <= backwardLayer.size() * backwardGrowth) {
+                expanded = forwardLayer.size();
+                meeting = expandLayer(forwardLayer, next, true, forward, backward);
+                forwardGrowth = (double) next.size() / forwardLayer.size();
+                forwardLayer = next;
+            } else {
+                expanded = backwardLayer.size();
+                meeting = expandLayer(backwardLayer, next, false, backward, forward);
+                backwardGrowth = (double) next.size() / backwardLayer.size();
+                backwardLayer = next;
+            }
+            layerDone(layersSearched, expanded, forward.size() + backward.size());
+            layersSearched += 1;
+        }
+        uniqueConfigs = forward.size() + backward.size();
+        if (meeting == null) {
+            return null;
+        }
+        List<Configuration> path = buildPath(forward, meeting);
+        for (Configuration node = backward.get(meeting); node != null; node = backward.get(node)) {
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Sees if the frontiers of a monotone puzzle have passed each other. The
+     * forward layer goes down and the backward layer goes up, and configs on
+     * the same layer are checked against each other as they are made, so once
+     * the forward layer is not above the backward one they can never meet.
+     * @param forwardLayer the frontier of the forward search
+     * @param backwardLayer the frontier of the backward search
+     * @return true if the two searches can no longer meet
+     */
+    private static boolean crossed(List<Configuration> forwardLayer, List<Configuration> backwardLayer) {
+        if (forwardLayer.get(0) instanceof MonotoneConfiguration forwardConfig
+                && backwardLayer.get(0) instanceof MonotoneConfiguration backwardConfig) {
+            return forwardConfig.getLayer() <= backwardConfig.getLayer();
+        }
+        return false;
+    }
+
+    /**
+     * Expands every config in one layer of a search. The whole layer is
+     * finished even after the searches meet so that the meeting point with
+     * the shortest total path is the one that gets picked, except for
+     * monotone configurations where every path is the same length.
+     * @param layer the configs at the deepest level of this search
+     * @param next gets the new configs at the next level
+     * @param forwards true to make neighbors, false to make predecessors
+     * @param visited how every config was reached by this search
+     * @param other how every config was reached by the other search
+     * @return the config where the two searches meet, or null if they have not met yet
+     */
+    private Configuration expandLayer(List<Configuration> layer, List<Configuration> next, boolean forwards,
+                                      Map<Configuration, Configuration> visited,
+                                      Map<Configuration, Configuration> other) {
+        Configuration meeting = null;
+        int best = Integer.MAX_VALUE;
+        for (Configuration current : layer) {
+            progress(layersSearched, layer.size(), visited.size() + other.size());
+            Collection<Configuration> found = forwards ? current.getNeighbors()
+                    : ((BackwardConfiguration) current).getPredecessors();
+            for (Configuration neighbor : found) {
+                totalConfigs += 1;
+                if (!visited.containsKey(neighbor)) {
+                    visited.put(neighbor, current);
+                    next.add(neighbor);
+                    if (other.containsKey(neighbor)) {
+                        if (neighbor instanceof MonotoneConfiguration) {
+                            return neighbor;
+                        }
+                        int length = depth(other, neighbor);
+                        if (length < best) {
+                            best = length;
+                            meeting = neighbor;
+                        }
+                    }
+                }
+            }
+        }
+        return meeting;
+    }
+
+    /**
+     * Counts the steps from a config back to the start or goal of its search
+     * @param visited how every config was reached by the search
+     * @param config the config to count from
+     * @return the number of steps
+     */
+    private static int depth(Map<Configuration, Configuration> visited, Configuration config) {
+        int steps = 0;
+        for (Configuration node = visited.get(config); node != null; node = visited.get(node)) {
+            steps += 1;
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,17 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration where every move goes down exactly one layer, such as a
+ * capture in Chess taking away one piece. No move can ever lead back to a
+ * config that was already passed, so the configs form a DAG, every config
+ * of a layer is the same number of moves from the start, and a config can
+ * only be found again within its own layer.
+ */
+public interface MonotoneConfiguration extends Configuration {
+    /**
+     * Gets the layer of this configuration. Every neighbor of this
+     * configuration is in the layer one lower than this one.
+     * @return the layer, such as the number of pieces left on the board
+     */
+    int getLayer();
+}
@@ -0,0 +1,112 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * DFS for monotone puzzles, where every move goes down one layer. Every
+ * solution of those puzzles is the same number of moves long, so the first
+ * solution found is already a shortest one. A config cannot come back along
+ * the path it was reached by, so nothing but the current path has to be
+ * kept, plus a bounded cache of configs proven to be dead ends so they are
+ * not searched again when another path reaches them. Memory is the depth
+ * of the puzzle plus the size of the cache, not the number of configs.
+ * Configurations that are not monotone are handed to a normal DFS.
+ */
+public class MonotoneDepthFirstEngine extends AbstractSearchEngine {
+    /** the number of dead ends remembered when the "solver.deadEnds" system property is not set */
+    static final int DEFAULT_CAPACITY = 1 << 18;
+
+    private final int capacity;
+
+    /**
+     * Makes an engine with a dead end cache of the size in the
+     * "solver.deadEnds" system property, or the default size if it is not set
+     */
+    public MonotoneDepthFirstEngine() {
+        this(Integer.getInteger("solver.deadEnds", DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Makes an engine with the given size of dead end cache
+     * @param capacity the most dead ends to remember
+     */
+    public MonotoneDepthFirstEngine(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.MONOTONE_DFS;
+    }
+
+    @Override
+    public SearchResult search(Configuration start) {
+        if (!(start instanceof MonotoneConfiguration)) {
+            return handOff(new DepthFirstEngine(), start);
+        }
+        return super.search(start);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        if (start.isSolution()) {
+            return List.of(start);
+        }
+        DeadEndCache deadEnds = new DeadEndCache(capacity);
+        // every config made after the start is looked up in the cache
+        long hits = 0;
+        Deque<Configuration> path = new ArrayDeque<>();
+        Deque<Iterator<Configuration>> pending = new ArrayDeque<>();
+        path.push(start);
+        pending.push(start.getNeighbors().iterator());
+        while (!pending.isEmpty()) {
+            Iterator<Configuration> neighbors = pending.peek();
+            if (!neighbors.hasNext()) {
+                // every move from here was tried, so this config is a dead end
+                pending.pop();
+                deadEnds.add(path.pop());
+                continue;
+            }
+            Configuration next = neighbors.next();
+            totalConfigs += 1;
+            progress(path.size(), path.size(), deadEnds.size() + path.size());
+            if (deadEnds.contains(next)) {
+                hits += 1;
+                continue;
+            }
+            checkLayer(path.peek(), next);
+            path.push(next);
+            if (next.isSolution()) {
+                uniqueConfigs = deadEnds.size() + path.size();
+                cacheUsed(totalConfigs - 1, hits);
+                List<Configuration> found = new ArrayList<>(path);
+                Collections.reverse(found);
+                return found;
+            }
+            pending.push(next.getNeighbors().iterator());
+        }
+        uniqueConfigs = deadEnds.size();
+        cacheUsed(totalConfigs - 1, hits);
+        return null;
+    }
+
+    /**
+     * Makes sure a move went down exactly one layer. The search has no
+     * visited set, so a config that claims to be monotone but is not
+     * could send it round a cycle forever, and this stops that at the first bad move.
+     * @param from the config the move was made from
+     * @param to the config the move made
+     * @throws IllegalStateException if the move did not go down one layer
+     */
+    static void checkLayer(Configuration from, Configuration to) {
+        int fromLayer = ((MonotoneConfiguration) from).getLayer();
+        int toLayer = ((MonotoneConfiguration) to).getLayer();
+        if (toLayer != fromLayer - 1) {
+            throw new IllegalStateException("a move went from layer " + fromLayer + " to layer " + toLayer
+                    + ", not one layer down");
+        }
+    }
+}
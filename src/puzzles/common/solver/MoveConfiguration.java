@@ -0,0 +1,69 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that packs into a long and can work out the packed long
+ * of each of its neighbors from its own, without making the neighbor. A
+ * search can then look the packed neighbor up in its visited table first
+ * and only make a config for the neighbors that turn out to be new.
+ */
+public interface MoveConfiguration extends PackedConfiguration {
+    /**
+     * Something that is told about each move of a configuration
+     */
+    @FunctionalInterface
+    interface MoveVisitor {
+        /**
+         * Gets told about one move
+         * @param move the move, which can be passed to applyMove
+         * @param neighborKey what toLong would give for the config after the move
+         */
+        void visit(int move, long neighborKey);
+    }
+
+    /**
+     * Goes through the moves of this configuration, in the same order as
+     * getNeighbors gives the configs they lead to. Only called when
+     * fitsInLong is true.
+     * @param visitor what to tell about each move
+     */
+    void forEachMove(MoveVisitor visitor);
+
+    /**
+     * Makes the configuration after a move
+     * @param move a move given to the visitor by forEachMove
+     * @return the neighbor the move leads to
+     */
+    Configuration applyMove(int move);
+
+    /**
+     * Takes a field out of a row of packed fields, moving the fields
+     * above it down to close the gap
+     * @param fields the packed fields, the first one in the lowest bits
+     * @param index which field to take out
+     * @param width the bits in each field
+     * @return the fields without that one
+     */
+    static long removeField(long fields, int index, int width) {
+        int low = index * width;
+        long below = fields & ((1L << low) - 1);
+        long above = low + width >= Long.SIZE ? 0 : fields >>> (low + width);
+        return below | (above << low);
+    }
+
+    /**
+     * Puts a new field into a row of packed fields, moving the fields
+     * above it up to make room
+     * @param fields the packed fields, the first one in the lowest bits
+     * @param index where the new field goes
+     * @param width the bits in each field
+     * @param value the value of the new field
+     * @return the fields with the new one in place
+     */
+    static long insertField(long fields, int index, int width, long value) {
+        int low = index * width;
+        long below = low >= Long.SIZE ? fields : fields & ((1L << low) - 1);
+        long above = low >= Long.SIZE ? 0 : fields >>> low;
+        long moved = low + width >= Long.SIZE ? 0 : above << (low + width);
+        return below | (value << low) | moved;
+    }
+}
@@ -0,0 +1,22 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for printing the counts and steps of a solution
+ */
+@Name("puzzles.Output")
+@Label("Output Rendering")
+@Category({"Puzzles", "Solver"})
+class OutputEvent extends Event {
+    @Label("Steps")
+    int steps;
+
+    @Label("Characters")
+    @DataAmount(DataAmount.BYTES)
+    long characters;
+}
@@ -0,0 +1,82 @@
+package puzzles.common.solver;
+
+import puzzles.common.collections.IntList;
+import puzzles.common.collections.LongIdTable;
+
+import java.util.*;
+
+/**
+ * BFS over configurations that pack into a long. The packed longs are
+ * numbered in the order they are found and kept in a LongIdTable, with
+ * the id of each one's parent in an int list, and a config is unpacked
+ * again when its id comes up to be expanded. For a MoveConfiguration the
+ * packed neighbors are worked out and looked up without making the
+ * neighbor configs at all. Explores configs in the
+ * same order as BreadthFirstEngine, so it finds the same path with the
+ * same counts. Configurations that do not fit in a long are handed to
+ * a normal BFS.
+ */
+public class PackedBreadthFirstEngine extends AbstractSearchEngine {
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.PACKED_BFS;
+    }
+
+    @Override
+    public SearchResult search(Configuration start) {
+        if (!(start instanceof PackedConfiguration packed) || !packed.fitsInLong()) {
+            return handOff(new BreadthFirstEngine(), start);
+        }
+        return super.search(start);
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        PackedConfiguration packer = (PackedConfiguration) start;
+        LongIdTable seen = new LongIdTable();
+        IntList parents = new IntList();
+        seen.add(packer.toLong());
+        parents.add(-1);
+        Configuration current = start;
+        int next = 0;
+        // the depth of the config being expanded and the ids where its layer begins and ends
+        int depth = 0;
+        int layerBegin = 0;
+        int layerEnd = 1;
+        while (!current.isSolution()) {
+            if (next == layerEnd) {
+                layerDone(depth, layerEnd - layerBegin, seen.size());
+                depth += 1;
+                layerBegin = layerEnd;
+                layerEnd = seen.size();
+            }
+            progress(depth, seen.size() - next, seen.size());
+            int parent = next;
+            if (current instanceof MoveConfiguration moves) {
+                // only the packed neighbors are needed, so no neighbor config is ever made
+                moves.forEachMove((move, neighborKey) -> {
+                    totalConfigs += 1;
+                    if (seen.add(neighborKey) >= 0) {
+                        parents.add(parent);
+                    }
+                });
+            } else {
+                current.forEachNeighbor(neighbor -> {
+                    totalConfigs += 1;
+                    if (seen.add(((PackedConfiguration) neighbor).toLong()) >= 0) {
+                        parents.add(parent);
+                    }
+                    return true;
+                });
+            }
+            next += 1;
+            if (next == seen.size()) {
+                uniqueConfigs = seen.size();
+                return null;
+            }
+            current = packer.fromLong(seen.get(next));
+        }
+        uniqueConfigs = seen.size();
+        return buildPath(parents, id -> packer.fromLong(seen.get(id)), next);
+    }
+}
@@ -0,0 +1,29 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can be packed into a single long. Searches over
+ * these configurations can keep just the longs in their visited and
+ * predecessor tables and unpack a config only when it is expanded.
+ */
+public interface PackedConfiguration extends Configuration {
+    /**
+     * Sees if this configuration can be packed into a long. If it can,
+     * then so can every configuration that is reachable from it.
+     * @return true if this configuration fits in a long
+     */
+    boolean fitsInLong();
+
+    /**
+     * Packs this configuration into a long. Two configurations pack to the
+     * same long exactly when they are equal.
+     * @return the packed configuration
+     */
+    long toLong();
+
+    /**
+     * Unpacks a long made by toLong on this configuration or one reachable from it
+     * @param packed the packed configuration
+     * @return the configuration that was packed
+     */
+    Configuration fromLong(long packed);
+}
@@ -0,0 +1,179 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * BFS that expands one whole depth layer at a time, spreading the configs
+ * of the layer over the threads of a ForkJoinPool. A layer is done in two
+ * passes. The first pass makes the neighbors of every config in the layer
+ * and, for each new neighbor, remembers the earliest (parent, neighbor)
+ * position that reached it. The second pass keeps each new neighbor only
+ * at that earliest position, so the next layer comes out in exactly the
+ * order the sequential BFS would queue it. That keeps both the shortest
+ * path and the same path BreadthFirstEngine prints, whatever the number
+ * of threads.
+ */
+public class ParallelBreadthFirstEngine extends AbstractSearchEngine {
+    /** the number of configs of a layer one task works through */
+    private static final int CHUNK = 256;
+
+    private final int threads;
+
+    /**
+     * Makes an engine using the number of threads in the "solver.threads"
+     * system property, or one thread per processor if it is not set
+     */
+    public ParallelBreadthFirstEngine() {
+        this(Integer.getInteger("solver.threads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Makes an engine using the given number of threads
+     * @param threads the number of threads to expand each layer with
+     */
+    public ParallelBreadthFirstEngine(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    @Override
+    public SearchStrategy getStrategy() {
+        return SearchStrategy.PARALLEL_BFS;
+    }
+
+    @Override
+    protected List<Configuration> explore(Configuration start) {
+        Map<Configuration, Configuration> predecessor = new ConcurrentHashMap<>();
+        List<Configuration> layer = List.of(start);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int depth = 0; !layer.isEmpty(); depth++) {
+                progress(depth, layer.size(), predecessor.size() + 1);
+                for (Configuration config : layer) {
+                    if (config.isSolution()) {
+                        uniqueConfigs = predecessor.size() + 1;
+                        return buildPath(predecessor, config);
+                    }
+                }
+                int expanded = layer.size();
+                layer = expand(pool, start, layer, predecessor);
+                layerDone(depth, expanded, predecessor.size() + 1);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        uniqueConfigs = predecessor.size() + 1;
+        return null;
+    }
+
+    /**
+     * Makes the next layer of the search
+     * @param pool the threads to work with
+     * @param start the starting configuration, which has no predecessor
+     * @param layer the configs at the current depth, in queue order
+     * @param predecessor every config seen so far except the start, mapped to its parent
+     * @return the new configs at the next depth, in queue order
+     * @throws CancellationException if the search was cancelled during the layer
+     */
+    private List<Configuration> expand(ForkJoinPool pool, Configuration start, List<Configuration> layer,
+                                       Map<Configuration, Configuration> predecessor) {
+        int size = layer.size();
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        Configuration[][] children = new Configuration[size][];
+        long[] generated = new long[chunks];
+        // the earliest position (parent index in the high half, neighbor index in the low half) of each new config
+        Map<Configuration, Long> firstSeen = new ConcurrentHashMap<>();
+        pool.invoke(new ChunkTask(0, chunks, chunk -> {
+            for (int parent = chunk * CHUNK; parent < Math.min(size, (chunk + 1) * CHUNK); parent++) {
+                if (isCancelled()) {
+                    return;
+                }
+                Configuration[] neighbors = layer.get(parent).getNeighbors().toArray(new Configuration[0]);
+                children[parent] = neighbors;
+                generated[chunk] += neighbors.length;
+                for (int index = 0; index < neighbors.length; index++) {
+                    Configuration neighbor = neighbors[index];
+                    if (!neighbor.equals(start) && !predecessor.containsKey(neighbor)) {
+                        firstSeen.merge(neighbor, ((long) parent << 32) | index, Math::min);
+                    }
+                }
+            }
+        }));
+        checkCancelled();
+        List<List<Configuration>> pieces = new ArrayList<>(Collections.nCopies(chunks, null));
+        pool.invoke(new ChunkTask(0, chunks, chunk -> {
+            List<Configuration> piece = new ArrayList<>();
+            for (int parent = chunk * CHUNK; parent < Math.min(size, (chunk + 1) * CHUNK); parent++) {
+                if (isCancelled()) {
+                    return;
+                }
+                Configuration[] neighbors = children[parent];
+                for (int index = 0; index < neighbors.length; index++) {
+                    Long first = firstSeen.get(neighbors[index]);
+                    if (first != null && first == (((long) parent << 32) | index)) {
+                        predecessor.put(neighbors[index], layer.get(parent));
+                        piece.add(neighbors[index]);
+                    }
+                }
+                children[parent] = null;
+            }
+            pieces.set(chunk, piece);
+        }));
+        checkCancelled();
+        List<Configuration> next = new ArrayList<>(firstSeen.size());
+        for (List<Configuration> piece : pieces) {
+            next.addAll(piece);
+        }
+        for (long count : generated) {
+            totalConfigs += count;
+        }
+        return next;
+    }
+
+    /**
+     * Runs a piece of work on every chunk in a range, splitting
+     * the range in half until each task has one chunk. Once the search
+     * is cancelled the chunks not yet started are skipped, and the work
+     * itself gives up part way through a chunk.
+     */
+    @SuppressWarnings("serial")
+    private class ChunkTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer work;
+
+        /**
+         * Makes a task for a range of chunks
+         * @param from the first chunk
+         * @param to one past the last chunk
+         * @param work what to do with each chunk
+         */
+        ChunkTask(int from, int to, IntConsumer work) {
+            this.from = from;
+            this.to = to;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (isCancelled()) {
+                return;
+            }
+            if (to - from <= 1) {
+                if (from < to) {
+                    work.accept(from);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, middle, work), new ChunkTask(middle, to, work));
+        }
+    }
+}
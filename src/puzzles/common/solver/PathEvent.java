@@ -0,0 +1,17 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for rebuilding the path of a solution once a search has found it
+ */
+@Name("puzzles.PathReconstruction")
+@Label("Path Reconstruction")
+@Category({"Puzzles", "Solver"})
+class PathEvent extends Event {
+    @Label("Length")
+    int length;
+}
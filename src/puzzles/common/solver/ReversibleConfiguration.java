@@ -0,0 +1,16 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration whose moves can all be undone by another move and whose
+ * puzzle has a single known goal configuration. This lets the puzzle be
+ * searched backwards from the goal as well as forwards from the start.
+ */
+public interface ReversibleConfiguration extends Configuration {
+    /**
+     * Gets the one configuration that solves the puzzle. Searching backwards
+     * uses the neighbors of the goal as the configs one move before it, so
+     * this should give null when that is not true for this puzzle.
+     * @return the goal configuration, or null if the puzzle cannot be searched backwards
+     */
+    Configuration getGoal();
+}
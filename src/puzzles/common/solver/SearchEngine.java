@@ -0,0 +1,35 @@
+package puzzles.common.solver;
+
+/**
+ * A way of searching from a starting configuration to a solution.
+ * Each implementation explores the configurations in its own order,
+ * so they differ in how much memory and time they need and in whether
+ * the path they find is guaranteed to be the shortest one.
+ */
+public interface SearchEngine {
+    /**
+     * Searches for a solution starting from the given configuration
+     * @param start the starting configuration of the puzzle
+     * @return the path that was found along with the counts and timing
+     * of the search, the path is null if there is no solution
+     */
+    SearchResult search(Configuration start);
+
+    /**
+     * Gets the strategy this engine implements
+     * @return the strategy of this engine
+     */
+    SearchStrategy getStrategy();
+
+    /**
+     * Adds a listener that is told how every later search is going while it runs
+     * @param listener the listener to add
+     */
+    void addListener(SearchListener listener);
+
+    /**
+     * Stops the search this engine is running. The search stops the next
+     * time it expands a config and throws a CancellationException.
+     */
+    void cancel();
+}
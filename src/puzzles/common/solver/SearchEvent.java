@@ -0,0 +1,37 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for one whole search, from when an engine
+ * starts searching to when it has its result
+ */
+@Name("puzzles.Search")
+@Label("Search")
+@Category({"Puzzles", "Solver"})
+@Description("One search of a puzzle by a search engine")
+class SearchEvent extends Event {
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Puzzle")
+    @Description("The class of the starting configuration")
+    String puzzle;
+
+    @Label("Total Configs")
+    long totalConfigs;
+
+    @Label("Unique Configs")
+    long uniqueConfigs;
+
+    @Label("Solved")
+    boolean solved;
+
+    @Label("Steps")
+    @Description("The moves in the path found, -1 if there is no solution")
+    int steps;
+}
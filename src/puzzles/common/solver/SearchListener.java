@@ -0,0 +1,34 @@
+package puzzles.common.solver;
+
+import java.io.PrintStream;
+
+/**
+ * Gets told how a search is going while it runs, so a search that is
+ * running away, or using up the heap, can be seen before it finishes.
+ * Listeners are added to an engine before it searches. Progress is only
+ * sent every so often, set by the "solver.progressMillis" system property.
+ */
+@FunctionalInterface
+public interface SearchListener {
+    /**
+     * Called with a snapshot of the search, from the thread doing the search
+     * @param progress how the search is going
+     */
+    void progress(SearchProgress progress);
+
+    /**
+     * Called once when the search is over
+     * @param result the result of the search
+     */
+    default void finished(SearchResult result) {
+    }
+
+    /**
+     * Makes a listener that prints every snapshot on its own line
+     * @param out where to print
+     * @return the new listener
+     */
+    static SearchListener printingTo(PrintStream out) {
+        return out::println;
+    }
+}
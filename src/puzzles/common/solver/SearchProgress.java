@@ -0,0 +1,49 @@
+package puzzles.common.solver;
+
+/**
+ * A snapshot of a search that is still running, handed to every
+ * SearchListener of the engine doing the search.
+ * @param strategy the strategy of the engine doing the search
+ * @param depth how deep the search is, in moves from the start
+ * @param frontier the configs waiting to be expanded, or the length
+ *                 of the current path for the depth first searches
+ * @param totalConfigs the configs made so far, including duplicates
+ * @param visited the distinct configs the engine has counted so far
+ * @param elapsedNanos the time since the search began in nanoseconds
+ * @param heapUsed the bytes of heap in use when the snapshot was taken
+ */
+public record SearchProgress(SearchStrategy strategy, int depth, long frontier, long totalConfigs,
+                             long visited, long elapsedNanos, long heapUsed) {
+    /**
+     * Gets how fast the search is making configs
+     * @return the configs made per second since the search began
+     */
+    public double configsPerSecond() {
+        return elapsedNanos == 0 ? 0 : totalConfigs * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets how much of the search's work went into configs it had already seen
+     * @return the share of the configs made that were not new, from 0 to 1
+     */
+    public double duplicateRatio() {
+        return totalConfigs == 0 ? 0 : Math.max(0, 1 - (double) visited / totalConfigs);
+    }
+
+    /**
+     * Gets a rough size of each remembered config, counting all of the heap
+     * in use, so it is only a trend to watch and not an exact size
+     * @return the bytes of heap in use per visited config
+     */
+    public double heapPerState() {
+        return visited == 0 ? 0 : (double) heapUsed / visited;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s depth %d: frontier %d, %d configs, %d visited, %.0f configs/s, "
+                        + "%.1f%% duplicates, %d MB heap (%.0f B/state)",
+                strategy, depth, frontier, totalConfigs, visited, configsPerSecond(),
+                duplicateRatio() * 100, heapUsed / (1024 * 1024), heapPerState());
+    }
+}
@@ -0,0 +1,107 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * The outcome of one search: the path that was found (if any)
+ * along with how many configs were looked at and how long it took.
+ */
+public class SearchResult {
+    private final SearchStrategy strategy;
+    private final List<Configuration> path;
+    private final long totalConfigs;
+    private final long uniqueConfigs;
+    private final long elapsedNanos;
+
+    /**
+     * Makes a search result
+     * @param strategy the strategy of the engine that did the search
+     * @param path the configs from the start to the solution, null if there is no solution
+     * @param totalConfigs the number of configs that were generated, including duplicates
+     * @param uniqueConfigs the number of distinct configs the engine had to remember
+     * @param elapsedNanos how long the search took in nanoseconds
+     */
+    public SearchResult(SearchStrategy strategy, List<Configuration> path,
+                        long totalConfigs, long uniqueConfigs, long elapsedNanos) {
+        this.strategy = strategy;
+        this.path = path;
+        this.totalConfigs = totalConfigs;
+        this.uniqueConfigs = uniqueConfigs;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the strategy of the engine that did the search
+     * @return the search strategy
+     */
+    public SearchStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the configs from the start to the solution
+     * @return the path, or null if there is no solution
+     */
+    public List<Configuration> getPath() {
+        return path;
+    }
+
+    /**
+     * Sees if the search found a solution
+     * @return true if there is a path to a solution and false if not
+     */
+    public boolean isSolved() {
+        return path != null;
+    }
+
+    /**
+     * Gets the number of moves in the path
+     * @return the number of steps to the solution, or -1 if there is no solution
+     */
+    public int getSteps() {
+        return path == null ? -1 : path.size() - 1;
+    }
+
+    /**
+     * Gets the number of configs that were generated, including duplicates
+     * @return the total number of configs
+     */
+    public long getTotalConfigs() {
+        return totalConfigs;
+    }
+
+    /**
+     * Gets the number of distinct configs the engine had to remember
+     * @return the number of unique configs
+     */
+    public long getUniqueConfigs() {
+        return uniqueConfigs;
+    }
+
+    /**
+     * Gets how long the search took
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets how long the search took
+     * @return the elapsed time in milliseconds
+     */
+    public double getElapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    /**
+     * A short summary of the search
+     * @return the strategy, steps, counts and time of the search
+     */
+    @Override
+    public String toString() {
+        return strategy + ": " + (isSolved() ? getSteps() + " steps" : "no solution")
+                + ", total " + totalConfigs + ", unique " + uniqueConfigs
+                + ", " + String.format("%.3f", getElapsedMillis()) + " ms";
+    }
+}
@@ -0,0 +1,86 @@
+package puzzles.common.solver;
+
+/**
+ * The different search engines the solver can use.
+ * Each strategy knows how to make a fresh engine for itself.
+ */
+public enum SearchStrategy {
+    /** breadth first search, always finds the shortest path */
+    BFS,
+    /** depth first search, stops at the first solution it reaches */
+    DFS,
+    /** depth limited searches with a growing limit (IDA* when there is an estimate), only remembers the current path */
+    ITERATIVE_DEEPENING,
+    /** best first search ordered by the cost so far plus an estimate of the cost left */
+    A_STAR,
+    /** breadth first searches from both the start and the goal that meet in the middle */
+    BIDIRECTIONAL,
+    /** breadth first search that only keeps configs packed into longs */
+    PACKED_BFS,
+    /** breadth first search that expands each depth layer on several threads */
+    PARALLEL_BFS,
+    /** depth first search for puzzles where every move goes down a layer, remembers dead ends */
+    MONOTONE_DFS,
+    /** breadth first search for puzzles where every move goes down a layer, forgets finished layers */
+    LAYERED_BFS,
+    /** breadth first search that keeps its layers in files, for puzzles too big for the heap */
+    EXTERNAL_BFS,
+    /** breadth first search that keeps its visited table in a memory mapped file */
+    MAPPED_BFS,
+    /** breadth first search that keeps configs packed into the bytes of an arena */
+    ARENA_BFS,
+    /** breadth first searches forwards from the start and backwards from every goal that meet in the middle */
+    MEET_IN_THE_MIDDLE;
+
+    /**
+     * Makes a new engine that searches using this strategy
+     * @return the new search engine
+     */
+    public SearchEngine newEngine() {
+        switch (this) {
+            case DFS:
+                return new DepthFirstEngine();
+            case ITERATIVE_DEEPENING:
+                return new IterativeDeepeningEngine();
+            case A_STAR:
+                return new AStarEngine();
+            case BIDIRECTIONAL:
+                return new BidirectionalEngine();
+            case PACKED_BFS:
+                return new PackedBreadthFirstEngine();
+            case PARALLEL_BFS:
+                return new ParallelBreadthFirstEngine();
+            case MONOTONE_DFS:
+                return new MonotoneDepthFirstEngine();
+            case LAYERED_BFS:
+                return new LayeredBreadthFirstEngine();
+            case EXTERNAL_BFS:
+                return new ExternalBreadthFirstEngine();
+            case MAPPED_BFS:
+                return new MappedBreadthFirstEngine();
+            case ARENA_BFS:
+                return new ArenaBreadthFirstEngine();
+            case MEET_IN_THE_MIDDLE:
+                return new MeetInTheMiddleEngine();
+            default:
+                return new BreadthFirstEngine();
+        }
+    }
+
+    /**
+     * Finds the strategy with the given name, ignoring case and
+     * allowing dashes in place of underscores (e.g. "iterative-deepening")
+     * @param name the name of the strategy
+     * @return the strategy with that name
+     * @throws IllegalArgumentException if there is no strategy with that name
+     */
+    public static SearchStrategy fromName(String name) {
+        String normalized = name.trim().toUpperCase().replace('-', '_');
+        for (SearchStrategy strategy : values()) {
+            if (strategy.name().equals(normalized)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown search strategy: " + name);
+    }
+}
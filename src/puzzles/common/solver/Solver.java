@@ -1,8 +1,13 @@
 package puzzles.common.solver;
 
+import puzzles.common.collections.LongHashSet;
+import puzzles.common.collections.LongQueue;
+
 import java.util.*;
+import java.util.concurrent.CancellationException;
 /**
- * BFS implementation of Conifuration.java interface objects
+ * Solves Conifuration.java interface objects with one of the
+ * search engines and prints out the steps of the solution
  */
 public class Solver {
     /**
@@ -13,42 +18,166 @@ public class Solver {
      * got from the start to end config in the least amount of configs
      */
     public static List<Configuration> solve(Configuration start){
-        Map<Configuration, Configuration> predecessor = new HashMap<>();
-        Configuration startConfig;
-        startConfig = start;
-        predecessor.put(startConfig, null);
-        Queue<Configuration> toVisit = new LinkedList<>();
-        toVisit.offer(startConfig);
-        int totalConfigs = 1;
-        while (!toVisit.isEmpty() && !toVisit.peek().isSolution()) {
-            Configuration current = toVisit.remove();
-            for (Configuration neighbors : current.getNeighbors()) {
-                totalConfigs+=1;
-                if (!(predecessor.containsKey(neighbors))) {
-                    predecessor.put(neighbors, current);
-                    toVisit.offer(neighbors);
-                }
-            }
+        return solve(start, SearchStrategy.BFS);
+    }
+
+    /**
+     * Searches from the start config using the given strategy
+     * and prints the counts and every step of the path it found.
+     * If the "solver.progress" system property is true, how the
+     * search is going is printed to System.err while it runs.
+     * @param start the starting configuration of the interface object
+     * @param strategy the search strategy to use
+     * @return a list of config object that show the order of how it
+     * got from the start to end config, null if there is no solution
+     */
+    public static List<Configuration> solve(Configuration start, SearchStrategy strategy){
+        if (Boolean.getBoolean("solver.progress")) {
+            return solve(start, strategy, SearchListener.printingTo(System.err));
+        }
+        return solve(start, strategy, null);
+    }
+
+    /**
+     * Searches from the start config using the given strategy, telling
+     * the listener how it is going, and prints the counts and every
+     * step of the path it found. The printing is recorded as a flight
+     * recorder event of its own, after the events of the search.
+     * @param start the starting configuration of the interface object
+     * @param strategy the search strategy to use
+     * @param listener told how the search is going while it runs, or null for none
+     * @return a list of config object that show the order of how it
+     * got from the start to end config, null if there is no solution
+     * or the search was cancelled through the SolverMonitor
+     */
+    public static List<Configuration> solve(Configuration start, SearchStrategy strategy,
+                                            SearchListener listener){
+        SearchEngine engine = strategy.newEngine();
+        if (listener != null) {
+            engine.addListener(listener);
         }
-        System.out.println("Total Configs: "+(totalConfigs));
-        System.out.println("Unique Configs: "+(predecessor.size()));
-        if ( toVisit.isEmpty() ) {
+        SearchResult result;
+        try {
+            result = engine.search(start);
+        } catch (CancellationException e) {
+            System.out.println("Search cancelled");
+            return null;
+        }
+        OutputEvent output = SolverEvents.beginOutput();
+        System.out.println("Total Configs: "+(result.getTotalConfigs()));
+        System.out.println("Unique Configs: "+(result.getUniqueConfigs()));
+        if ( !result.isSolved() ) {
             System.out.println("No solution");
+            SolverEvents.endOutput(output, result.getSteps(), 0);
             return null;
         }
         else {
-            Configuration finishConfig = toVisit.remove();
-            List<Configuration> path = new LinkedList<>();
-            path.add( 0, finishConfig );
-            Configuration node = predecessor.get( finishConfig );
-            while ( node != null ) {
-                path.add( 0, node );
-                node = predecessor.get( node );
-            }
+            List<Configuration> path = result.getPath();
+            long characters = 0;
             for (int i = 0; i < path.size(); i++){
-                System.out.println("Step "+i+": \n"+path.get(i).toString());
+                String step = "Step "+i+": \n"+path.get(i).toString();
+                characters += step.length() + 1;
+                System.out.println(step);
             }
+            SolverEvents.endOutput(output, result.getSteps(), characters);
             return path;
         }
     }
+
+    /**
+     * Sees if there is any way to solve the puzzle from the start config,
+     * without keeping predecessors or making a path. Monotone puzzles are
+     * searched by the MONOTONE_DFS engine, which remembers only the current
+     * stack of moves and a fixed size cache of dead ends, everything else
+     * goes through distanceToGoal.
+     * @param start the starting configuration of the interface object
+     * @return true if a solution can be reached from the start
+     */
+    public static boolean isSolvable(Configuration start) {
+        if (start instanceof MonotoneConfiguration) {
+            return SearchStrategy.MONOTONE_DFS.newEngine().search(start).isSolved();
+        }
+        return distanceToGoal(start) >= 0;
+    }
+
+    /**
+     * Finds the fewest moves from the start config to a solution with a
+     * breadth first search that only keeps a visited set and the current
+     * layer, never predecessors or a path. Configs that pack into a long are
+     * kept packed. For monotone puzzles only the visited set of the layer
+     * being made is kept, since a config can only be found again in its own layer.
+     * @param start the starting configuration of the interface object
+     * @return the number of moves in a shortest solution, or -1 if there is no solution
+     */
+    public static int distanceToGoal(Configuration start) {
+        if (start.isSolution()) {
+            return 0;
+        }
+        if (start instanceof PackedConfiguration packed && packed.fitsInLong()) {
+            return packedDistance(packed, start instanceof MonotoneConfiguration);
+        }
+        boolean monotone = start instanceof MonotoneConfiguration;
+        Set<Configuration> visited = new HashSet<>();
+        visited.add(start);
+        List<Configuration> layer = List.of(start);
+        for (int distance = 1; !layer.isEmpty(); distance++) {
+            if (monotone) {
+                visited.clear();
+            }
+            List<Configuration> next = new ArrayList<>();
+            for (Configuration config : layer) {
+                boolean solved = !config.forEachNeighbor(neighbor -> {
+                    if (visited.add(neighbor)) {
+                        if (neighbor.isSolution()) {
+                            return false;
+                        }
+                        next.add(neighbor);
+                    }
+                    return true;
+                });
+                if (solved) {
+                    return distance;
+                }
+            }
+            layer = next;
+        }
+        return -1;
+    }
+
+    /**
+     * Does distanceToGoal for configs that pack into a long, keeping
+     * both the visited set and the layers as packed longs
+     * @param start the starting configuration, which fits in a long
+     * @param monotone true if only the visited set of the layer being made has to be kept
+     * @return the number of moves in a shortest solution, or -1 if there is no solution
+     */
+    private static int packedDistance(PackedConfiguration start, boolean monotone) {
+        LongHashSet visited = new LongHashSet();
+        visited.add(start.toLong());
+        LongQueue layer = new LongQueue();
+        layer.offer(start.toLong());
+        for (int distance = 1; !layer.isEmpty(); distance++) {
+            if (monotone) {
+                visited.clear();
+            }
+            LongQueue next = new LongQueue();
+            while (!layer.isEmpty()) {
+                boolean solved = !start.fromLong(layer.poll()).forEachNeighbor(neighbor -> {
+                    long key = ((PackedConfiguration) neighbor).toLong();
+                    if (visited.add(key)) {
+                        if (neighbor.isSolution()) {
+                            return false;
+                        }
+                        next.offer(key);
+                    }
+                    return true;
+                });
+                if (solved) {
+                    return distance;
+                }
+            }
+            layer = next;
+        }
+        return -1;
+    }
 }
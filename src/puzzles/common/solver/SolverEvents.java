@@ -0,0 +1,177 @@
+package puzzles.common.solver;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Makes the flight recorder events of the solver. The first event class
+ * that is loaded starts up the flight recorder, which takes a good part
+ * of a second, so no event is made until a recording has been started,
+ * either on the command line or later on with jcmd. Until then every
+ * begin method gives back null, and every end method does nothing with it.
+ */
+public final class SolverEvents {
+    private SolverEvents() {
+    }
+
+    /**
+     * Sees if events should be made
+     * @return true once the flight recorder has been started
+     */
+    private static boolean recording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    /**
+     * Starts the event of a search
+     * @return the event, or null if nothing is being recorded
+     */
+    static SearchEvent beginSearch() {
+        if (!recording()) {
+            return null;
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the event of a search
+     * @param event the event from beginSearch
+     * @param start the starting configuration of the search
+     * @param result the result of the search
+     */
+    static void endSearch(SearchEvent event, Configuration start, SearchResult result) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = result.getStrategy().name();
+            event.puzzle = start.getClass().getSimpleName();
+            event.totalConfigs = result.getTotalConfigs();
+            event.uniqueConfigs = result.getUniqueConfigs();
+            event.solved = result.isSolved();
+            event.steps = result.getSteps();
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts the event of a layer of a search
+     * @return the event, or null if nothing is being recorded
+     */
+    static LayerEvent beginLayer() {
+        if (!recording()) {
+            return null;
+        }
+        LayerEvent event = new LayerEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the event of a layer of a search
+     * @param event the event from beginLayer
+     * @param strategy the strategy of the search
+     * @param depth the depth of the layer
+     * @param expanded the configs of the layer whose neighbors were made
+     * @param generated the configs made while expanding the layer
+     * @param visited the distinct configs counted once the layer was done
+     */
+    static void endLayer(LayerEvent event, SearchStrategy strategy, int depth, long expanded,
+                         long generated, long visited) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = strategy.name();
+            event.depth = depth;
+            event.expanded = expanded;
+            event.generated = generated;
+            event.visited = visited;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts the event of rebuilding a path
+     * @return the event, or null if nothing is being recorded
+     */
+    static PathEvent beginPath() {
+        if (!recording()) {
+            return null;
+        }
+        PathEvent event = new PathEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the event of rebuilding a path
+     * @param event the event from beginPath
+     * @param length the configs in the path
+     */
+    static void endPath(PathEvent event, int length) {
+        if (event != null) {
+            event.length = length;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts the event of printing a result
+     * @return the event, or null if nothing is being recorded
+     */
+    static OutputEvent beginOutput() {
+        if (!recording()) {
+            return null;
+        }
+        OutputEvent event = new OutputEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the event of printing a result
+     * @param event the event from beginOutput
+     * @param steps the moves printed
+     * @param characters the characters printed
+     */
+    static void endOutput(OutputEvent event, int steps, long characters) {
+        if (event != null) {
+            event.steps = steps;
+            event.characters = characters;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts the event of a model working out a hint
+     * @return the event, or null if nothing is being recorded
+     */
+    public static HintEvent beginHint() {
+        if (!recording()) {
+            return null;
+        }
+        HintEvent event = new HintEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits the event of a model working out a hint
+     * @param event the event from beginHint
+     * @param puzzle the name of the puzzle
+     * @param solved true if the puzzle can be solved from where it is
+     * @param uniqueConfigs the distinct configs the search of the hint counted
+     */
+    public static void endHint(HintEvent event, String puzzle, boolean solved, long uniqueConfigs) {
+        if (event != null) {
+            event.puzzle = puzzle;
+            event.solved = solved;
+            event.uniqueConfigs = uniqueConfigs;
+            event.commit();
+        }
+    }
+}
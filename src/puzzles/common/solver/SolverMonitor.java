@@ -0,0 +1,208 @@
+package puzzles.common.solver;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps count of every search the engines do and every hint the models
+ * work out. Setting the "solver.jmx" system property to true also shows
+ * it all as the platform MBean "puzzles:type=Solver", registered when the
+ * class is loaded. It is off by default because starting the
+ * platform MBean server takes a good part of a second, which short runs that
+ * are never watched should not pay. Even when it is on, registering is done
+ * on a daemon thread, so no search waits for it or keeps the program running for it.
+ */
+public class SolverMonitor implements SolverMonitorMBean {
+    /** the name the MBean is registered under */
+    public static final String OBJECT_NAME = "puzzles:type=Solver";
+
+    private static final SolverMonitor INSTANCE = new SolverMonitor();
+
+    static {
+        if (Boolean.getBoolean("solver.jmx")) {
+            Thread registration = new Thread(() -> register(INSTANCE), "solver-monitor");
+            registration.setDaemon(true);
+            registration.start();
+        }
+    }
+
+    private final Set<AbstractSearchEngine> active = ConcurrentHashMap.newKeySet();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong totalConfigs = new AtomicLong();
+    private final AtomicLong uniqueConfigs = new AtomicLong();
+    private final AtomicLong cacheLookups = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong hints = new AtomicLong();
+    private final AtomicLong hintNanos = new AtomicLong();
+
+    private SolverMonitor() {
+    }
+
+    /**
+     * Gets the monitor. The MBean is not registered here, that is started
+     * on a daemon thread when the class is loaded, and only if the
+     * "solver.jmx" system property is true.
+     * @return the one monitor
+     */
+    public static SolverMonitor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a monitor with the platform MBean server. A monitor that
+     * cannot be registered still counts, it just cannot be seen through JMX.
+     * @param monitor the monitor to register
+     */
+    private static void register(SolverMonitor monitor) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Could not register " + OBJECT_NAME + ": " + e);
+        }
+    }
+
+    /**
+     * Records that an engine started a search
+     * @param engine the engine doing the search
+     */
+    void searchStarted(AbstractSearchEngine engine) {
+        active.add(engine);
+    }
+
+    /**
+     * Records that an engine's search is over
+     * @param engine the engine that did the search
+     * @param wasCancelled true if the search was cancelled before it finished
+     */
+    void searchFinished(AbstractSearchEngine engine, boolean wasCancelled) {
+        active.remove(engine);
+        completed.incrementAndGet();
+        if (wasCancelled) {
+            cancelled.incrementAndGet();
+        }
+        totalConfigs.addAndGet(engine.totalConfigs);
+        uniqueConfigs.addAndGet(engine.uniqueConfigs);
+    }
+
+    /**
+     * Records the lookups a search made in one of its caches
+     * @param lookups the number of lookups
+     * @param hits the number of lookups that were hits
+     */
+    void cacheUsed(long lookups, long hits) {
+        cacheLookups.addAndGet(lookups);
+        cacheHits.addAndGet(hits);
+    }
+
+    /**
+     * Records that a model worked out a hint
+     * @param nanos how long the hint took in nanoseconds
+     */
+    public void hintServed(long nanos) {
+        hints.incrementAndGet();
+        hintNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public int getActiveSearches() {
+        return active.size();
+    }
+
+    @Override
+    public String[] getActiveStrategies() {
+        return active.stream().map(engine -> engine.getStrategy().name()).toArray(String[]::new);
+    }
+
+    @Override
+    public long getSearchesCompleted() {
+        return completed.get();
+    }
+
+    @Override
+    public long getSearchesCancelled() {
+        return cancelled.get();
+    }
+
+    @Override
+    public long getTotalConfigs() {
+        long total = totalConfigs.get();
+        for (AbstractSearchEngine engine : active) {
+            total += engine.snapshot().totalConfigs();
+        }
+        return total;
+    }
+
+    @Override
+    public long getUniqueConfigs() {
+        return uniqueConfigs.get();
+    }
+
+    @Override
+    public int getDepth() {
+        int deepest = 0;
+        for (AbstractSearchEngine engine : active) {
+            deepest = Math.max(deepest, engine.snapshot().depth());
+        }
+        return deepest;
+    }
+
+    @Override
+    public long getFrontierSize() {
+        long frontier = 0;
+        for (AbstractSearchEngine engine : active) {
+            frontier += engine.snapshot().frontier();
+        }
+        return frontier;
+    }
+
+    @Override
+    public long getVisitedSize() {
+        long visited = 0;
+        for (AbstractSearchEngine engine : active) {
+            visited += engine.snapshot().visited();
+        }
+        return visited;
+    }
+
+    @Override
+    public long getCacheLookups() {
+        return cacheLookups.get();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long lookups = cacheLookups.get();
+        return lookups == 0 ? 0 : (double) cacheHits.get() / lookups;
+    }
+
+    @Override
+    public long getHintsServed() {
+        return hints.get();
+    }
+
+    @Override
+    public double getAverageHintMillis() {
+        long count = hints.get();
+        return count == 0 ? 0 : hintNanos.get() / 1e6 / count;
+    }
+
+    @Override
+    public int cancelSearches() {
+        int count = 0;
+        for (AbstractSearchEngine engine : active) {
+            engine.cancel();
+            count += 1;
+        }
+        return count;
+    }
+}
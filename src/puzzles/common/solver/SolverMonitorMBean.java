@@ -0,0 +1,103 @@
+package puzzles.common.solver;
+
+/**
+ * What the solver shows through JMX, so jconsole or any other JMX client
+ * can watch the searches of a running program and cancel them.
+ * The sizes of running searches are read while they change, so they
+ * can be a moment out of date.
+ */
+public interface SolverMonitorMBean {
+    /**
+     * Gets the number of searches running right now
+     * @return the number of running searches
+     */
+    int getActiveSearches();
+
+    /**
+     * Gets the strategies of the searches running right now
+     * @return the name of the strategy of each running search
+     */
+    String[] getActiveStrategies();
+
+    /**
+     * Gets the number of searches that have finished, including cancelled ones
+     * @return the number of finished searches
+     */
+    long getSearchesCompleted();
+
+    /**
+     * Gets the number of searches that were cancelled
+     * @return the number of cancelled searches
+     */
+    long getSearchesCancelled();
+
+    /**
+     * Gets the configs made by every search so far, including duplicates
+     * and the configs made so far by the running searches
+     * @return the total configs of every search
+     */
+    long getTotalConfigs();
+
+    /**
+     * Gets the distinct configs counted by every finished search
+     * @return the unique configs of every finished search
+     */
+    long getUniqueConfigs();
+
+    /**
+     * Gets the depth of the deepest running search
+     * @return the deepest depth, or 0 if no search is running
+     */
+    int getDepth();
+
+    /**
+     * Gets the configs waiting to be expanded by the running searches
+     * @return the frontier sizes of the running searches added up
+     */
+    long getFrontierSize();
+
+    /**
+     * Gets the distinct configs counted so far by the running searches
+     * @return the visited sizes of the running searches added up
+     */
+    long getVisitedSize();
+
+    /**
+     * Gets the number of times a search looked in one of its caches,
+     * the transposition cache of iterative deepening or the dead end
+     * cache of the monotone depth first search
+     * @return the number of cache lookups
+     */
+    long getCacheLookups();
+
+    /**
+     * Gets the number of cache lookups that found what they looked for
+     * @return the number of cache hits
+     */
+    long getCacheHits();
+
+    /**
+     * Gets the share of the cache lookups that were hits
+     * @return the hits divided by the lookups, or 0 if there were no lookups
+     */
+    double getCacheHitRate();
+
+    /**
+     * Gets the number of hints the models have worked out
+     * @return the number of hints
+     */
+    long getHintsServed();
+
+    /**
+     * Gets how long a model takes to work out a hint on average
+     * @return the mean milliseconds per hint, or 0 if there were no hints
+     */
+    double getAverageHintMillis();
+
+    /**
+     * Cancels every running search. Each one stops the next time
+     * it expands a config, and its caller gets a CancellationException.
+     * @return the number of searches that were cancelled
+     */
+    int cancelSearches();
+}
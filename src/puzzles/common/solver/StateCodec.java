@@ -0,0 +1,69 @@
+package puzzles.common.solver;
+
+/**
+ * How the configs of a puzzle are turned into a fixed number of bytes for
+ * searches that store them off the heap: with BytePackedConfiguration if
+ * the puzzle has it, otherwise as the eight bytes of a PackedConfiguration
+ * that fits in a long
+ */
+class StateCodec {
+    /** the bytes of a packed config */
+    final int size;
+    private final BytePackedConfiguration bytes;
+    private final PackedConfiguration packed;
+
+    /**
+     * Makes a codec
+     * @param size the bytes of a packed config
+     * @param bytes the config to unpack byte packed configs with, or null
+     * @param packed the config to unpack long packed configs with, or null
+     */
+    private StateCodec(int size, BytePackedConfiguration bytes, PackedConfiguration packed) {
+        this.size = size;
+        this.bytes = bytes;
+        this.packed = packed;
+    }
+
+    /**
+     * Finds the codec for a puzzle
+     * @param start the starting configuration of the puzzle
+     * @return the codec, or null if the configs cannot be packed
+     */
+    static StateCodec of(Configuration start) {
+        if (start instanceof BytePackedConfiguration byteConfig) {
+            return new StateCodec(byteConfig.packedSize(), byteConfig, null);
+        }
+        if (start instanceof PackedConfiguration longConfig && longConfig.fitsInLong()) {
+            return new StateCodec(Long.BYTES, null, longConfig);
+        }
+        return null;
+    }
+
+    /**
+     * Packs a config into a buffer
+     */
+    void write(Configuration config, byte[] buffer, int offset) {
+        if (bytes != null) {
+            ((BytePackedConfiguration) config).packInto(buffer, offset);
+        } else {
+            long value = ((PackedConfiguration) config).toLong();
+            for (int index = 0; index < Long.BYTES; index++) {
+                buffer[offset + index] = (byte) (value >>> (8 * (Long.BYTES - 1 - index)));
+            }
+        }
+    }
+
+    /**
+     * Unpacks a config from a buffer
+     */
+    Configuration read(byte[] buffer, int offset) {
+        if (bytes != null) {
+            return bytes.unpackFrom(buffer, offset);
+        }
+        long value = 0;
+        for (int index = 0; index < Long.BYTES; index++) {
+            value = (value << 8) | (buffer[offset + index] & 0xFF);
+        }
+        return packed.fromLong(value);
+    }
+}
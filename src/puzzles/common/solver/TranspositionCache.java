@@ -0,0 +1,89 @@
+package puzzles.common.solver;
+
+/**
+ * A fixed size table of configurations that one iteration of IDA* has
+ * already searched below without finding a solution. Each config has one
+ * slot picked by its hash code and a new entry simply replaces whatever
+ * was in its slot, so the table never grows past its capacity. An entry
+ * only counts for the bound it was made with, so entries from earlier
+ * iterations are ignored instead of being cleared out.
+ */
+class TranspositionCache {
+    private final Configuration[] slots;
+    /** the number of moves made to reach the config of each slot */
+    private final int[] costs;
+    /** the bound of the iteration that searched the config of each slot */
+    private final int[] bounds;
+    /** the smallest cost plus estimate over the bound found below each config, minus its cost */
+    private final int[] excesses;
+    private final int mask;
+    private int size;
+
+    /**
+     * Makes an empty table
+     * @param capacity the most configs to remember, rounded up to a power of two
+     */
+    TranspositionCache(int capacity) {
+        int length = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new Configuration[length];
+        this.costs = new int[length];
+        this.bounds = new int[length];
+        this.excesses = new int[length];
+        this.mask = length - 1;
+    }
+
+    /**
+     * Remembers that a config was searched below without finding a solution,
+     * pushing out the config that shared its slot
+     * @param config the configuration that was searched
+     * @param cost the number of moves made to reach it
+     * @param bound the bound of the iteration
+     * @param next the smallest cost plus estimate over the bound found below it
+     */
+    void add(Configuration config, int cost, int bound, int next) {
+        int slot = slotOf(config);
+        if (slots[slot] == null) {
+            size += 1;
+        }
+        slots[slot] = config;
+        costs[slot] = cost;
+        bounds[slot] = bound;
+        excesses[slot] = next == Integer.MAX_VALUE ? next : next - cost;
+    }
+
+    /**
+     * Sees if a config was already searched in this iteration with at least
+     * as many moves left, in which case searching it again cannot find a solution
+     * @param config the configuration
+     * @param cost the number of moves made to reach it this time
+     * @param bound the bound of the iteration
+     * @return the smallest cost plus estimate over the bound below the config
+     *         when it is reached with this cost, or -1 if it has to be searched
+     */
+    int lookup(Configuration config, int cost, int bound) {
+        int slot = slotOf(config);
+        Configuration found = slots[slot];
+        if (found == null || bounds[slot] != bound || costs[slot] > cost || !found.equals(config)) {
+            return -1;
+        }
+        return excesses[slot] == Integer.MAX_VALUE ? Integer.MAX_VALUE : cost + excesses[slot];
+    }
+
+    /**
+     * Gets the number of configs in the table
+     * @return the number of slots in use
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the slot of a configuration
+     * @param config the configuration
+     * @return the slot it goes in
+     */
+    private int slotOf(Configuration config) {
+        int hash = config.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
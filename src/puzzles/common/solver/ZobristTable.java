@@ -0,0 +1,66 @@
+package puzzles.common.solver;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random keys for Zobrist hashing of board configurations. Every (cell, piece)
+ * pair gets its own random 64-bit key and the hash of a board is the XOR of the
+ * keys of the pieces on it. A move that changes a few cells then changes the
+ * hash by XORing in just those cells' keys, instead of hashing the whole board
+ * again. The keys come from a fixed seed, so a board hashes the same way on
+ * every run.
+ */
+public final class ZobristTable {
+    /** the seed every table is made from */
+    private static final long SEED = 0x5DEECE66DL;
+    /** every table made so far, keyed by the cells in the high half and the pieces in the low half */
+    private static final Map<Long, ZobristTable> TABLES = new ConcurrentHashMap<>();
+
+    private final int pieces;
+    private final long[] keys;
+
+    /**
+     * Gets the table for boards with the given number of cells and kinds of pieces
+     * @param cells the number of cells on the board
+     * @param pieces the number of different pieces a cell can hold
+     * @return the table of keys
+     */
+    public static ZobristTable of(int cells, int pieces) {
+        return TABLES.computeIfAbsent(((long) cells << 32) | pieces, key -> new ZobristTable(cells, pieces));
+    }
+
+    /**
+     * Makes the random keys for a table
+     * @param cells the number of cells on the board
+     * @param pieces the number of different pieces a cell can hold
+     */
+    private ZobristTable(int cells, int pieces) {
+        this.pieces = pieces;
+        this.keys = new long[cells * pieces];
+        SplittableRandom random = new SplittableRandom(SEED ^ ((long) cells << 32) ^ pieces);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Gets the key of a piece on a cell
+     * @param cell the cell
+     * @param piece the piece on the cell
+     * @return the key to XOR into the hash of the board
+     */
+    public long key(int cell, int piece) {
+        return keys[cell * pieces + piece];
+    }
+
+    /**
+     * Folds a 64-bit Zobrist hash into an int for hashCode
+     * @param hash the Zobrist hash
+     * @return the hash code
+     */
+    public static int fold(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -1,17 +1,38 @@
 package puzzles.hoppers.model;
 
+import puzzles.common.solver.BackwardConfiguration;
+import puzzles.common.solver.BytePackedConfiguration;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.MonotoneConfiguration;
+import puzzles.common.solver.MoveConfiguration;
+import puzzles.common.solver.ZobristTable;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * The HoppersConfig class used by Hoppers to represent a single configuration of the Hoppers puzzle.
  * Implements the Configuration interface to allow use through Solver.java BFS implementation.
+ * The frogs are kept as two bitsets over the lily pads of the board, one for green frogs and one
+ * for red frogs, so that jumps and comparisons are a few mask operations.
  *
  *  @author Maanav Contractor (mpc9618)
  */
 
-public class HoppersConfig implements Configuration{
+public class HoppersConfig implements MoveConfiguration, BytePackedConfiguration, MonotoneConfiguration,
+        BackwardConfiguration {
+    /** the water and lily pads of the board, shared by every config made from it */
+    private final HoppersLayout layout;
+    /** the green frog bitset followed by the red frog bitset, each layout.words longs long */
+    private final long[] frogs;
+    /** the Zobrist hash of the frogs, updated jump by jump instead of rehashing the board */
+    private final long hash;
+    /** the number of green and red frogs, kept up to date jump by jump */
+    private final int greenFrogCount;
+    private final int redFrogCount;
+    /** the board getGoals was called on, null if this board was not made by a backward search */
+    private HoppersConfig origin;
+    /** the board as strings, only made when someone asks for it */
     private String[][] hopperBoard;
     private int rowDim;
     private int colDim;
@@ -19,11 +40,46 @@ public class HoppersConfig implements Configuration{
     /**
      * Constructor for HoppersConfig
      * @param hopperBoard 2d nested array representing a Hoppers board configuration
+     * @throws IllegalArgumentException if a cell is not "*", ".", "G" or "R"
      */
     public HoppersConfig(String[][] hopperBoard) {
         this.hopperBoard = hopperBoard;
         rowDim = hopperBoard.length;
         colDim = hopperBoard[0].length;
+        this.layout = new HoppersLayout(hopperBoard);
+        this.frogs = new long[2 * layout.words];
+        for (int pad = 0; pad < layout.pads; pad++) {
+            int cell = layout.cellOfPad[pad];
+            String frog = hopperBoard[cell / colDim][cell % colDim];
+            if (frog.equals("G")) {
+                frogs[pad >>> 6] |= 1L << pad;
+            } else if (frog.equals("R")) {
+                frogs[layout.words + (pad >>> 6)] |= 1L << pad;
+            } else if (!frog.equals(".")) {
+                throw new IllegalArgumentException("Unknown hoppers cell: " + frog);
+            }
+        }
+        this.hash = hashOf(layout, frogs);
+        this.greenFrogCount = count(layout, frogs, 0);
+        this.redFrogCount = count(layout, frogs, layout.words);
+    }
+
+    /**
+     * Constructor for a HoppersConfig made straight from its frog bitsets
+     * @param layout water and lily pads of the board
+     * @param frogs green frog bitset followed by the red frog bitset
+     * @param hash Zobrist hash of the frogs
+     * @param greenFrogCount number of green frogs
+     * @param redFrogCount number of red frogs
+     */
+    private HoppersConfig(HoppersLayout layout, long[] frogs, long hash, int greenFrogCount, int redFrogCount) {
+        this.layout = layout;
+        this.frogs = frogs;
+        this.hash = hash;
+        this.greenFrogCount = greenFrogCount;
+        this.redFrogCount = redFrogCount;
+        rowDim = layout.rowDim;
+        colDim = layout.colDim;
     }
 
     /**
@@ -31,6 +87,24 @@ public class HoppersConfig implements Configuration{
      * @return hopperBoard
      */
     public String[][] getHopperBoard() {
+        if (hopperBoard == null) {
+            String[][] board = new String[rowDim][colDim];
+            for (int iRow = 0; iRow < rowDim; iRow++) {
+                for (int iCol = 0; iCol < colDim; iCol++) {
+                    int pad = layout.padOfCell[iRow * colDim + iCol];
+                    if (pad < 0) {
+                        board[iRow][iCol] = "*";
+                    } else if (isGreen(pad)) {
+                        board[iRow][iCol] = "G";
+                    } else if (isRed(pad)) {
+                        board[iRow][iCol] = "R";
+                    } else {
+                        board[iRow][iCol] = ".";
+                    }
+                }
+            }
+            hopperBoard = board;
+        }
         return hopperBoard;
     }
 
@@ -50,109 +124,271 @@ public class HoppersConfig implements Configuration{
         return this.rowDim;
     }
 
+    /**
+     * Gets the layer of the board, which is its number of green
+     * frogs since every jump takes one green frog away
+     * @return number of green frogs
+     */
+    @Override
+    public int getLayer() {
+        return greenFrogCount;
+    }
+
     @Override
     public boolean isSolution() {
-        int redFrogCount = 0;
-        int greenFrogCount = 0;
-        for (int iRow = 0; iRow < rowDim; iRow++) {
-            for (int iCol = 0; iCol < colDim; iCol++) {
-                if (!(this.hopperBoard[iRow][iCol].equals(".") &&
-                        (this.hopperBoard[iRow][iCol].equals("*")))) {
-                    if (this.hopperBoard[iRow][iCol].equals("R")) {
-                        redFrogCount++;
-                    } else if (this.hopperBoard[iRow][iCol].equals("G")) {
-                        greenFrogCount++;
+        return greenFrogCount == 0 && redFrogCount == 1;
+    }
+
+    @Override
+    public Collection<Configuration> getNeighbors() {
+        Set<Configuration> neighbors = new LinkedHashSet<Configuration>();
+        for (int word = 0; word < layout.words; word++) {
+            long movers = frogs[word] | frogs[layout.words + word];
+            while (movers != 0) {
+                int pad = word * Long.SIZE + Long.numberOfTrailingZeros(movers);
+                movers &= movers - 1;
+                int[] jumps = layout.jumps[pad];
+                // each jump is a (from, over, to) triple, a frog can only jump a green frog onto an empty pad
+                for (int i = 0; i < jumps.length; i += 3) {
+                    if (isGreen(jumps[i + 1]) && isEmpty(jumps[i + 2])) {
+                        neighbors.add(jump(jumps[i], jumps[i + 1], jumps[i + 2]));
                     }
                 }
             }
         }
-        if (greenFrogCount == 0 && redFrogCount == 1) {
-            return true;
+        return neighbors;
+    }
+
+    /**
+     * Makes the configs for the jumps one at a time, in the same order
+     * as getNeighbors, stopping as soon as the visitor says to
+     *
+     * @param visitor gets each new HoppersConfig, and returns false to stop
+     * @return true if every jump was visited
+     */
+    @Override
+    public boolean forEachNeighbor(Predicate<Configuration> visitor) {
+        for (int word = 0; word < layout.words; word++) {
+            long movers = frogs[word] | frogs[layout.words + word];
+            while (movers != 0) {
+                int pad = word * Long.SIZE + Long.numberOfTrailingZeros(movers);
+                movers &= movers - 1;
+                int[] jumps = layout.jumps[pad];
+                for (int i = 0; i < jumps.length; i += 3) {
+                    if (isGreen(jumps[i + 1]) && isEmpty(jumps[i + 2])
+                            && !visitor.test(jump(jumps[i], jumps[i + 1], jumps[i + 2]))) {
+                        return false;
+                    }
+                }
+            }
         }
-        return false;
+        return true;
     }
 
+    /**
+     * Makes every solved board, which is the one red frog with no green frogs
+     * left. The red frog can only end up on a pad in the same group as the
+     * one it is on now.
+     *
+     * @return boards that could solve this one, none if it does not have exactly one red frog
+     */
     @Override
-    public Collection<Configuration> getNeighbors() {
-        Set<Configuration> neighbors = new LinkedHashSet<Configuration>();
-        for (int iRow = 0; iRow < rowDim; iRow++) {
-            for (int iCol = 0; iCol < colDim; iCol++) {
-                if (this.hopperBoard[iRow][iCol].equals("G") ||
-                        this.hopperBoard[iRow][iCol].equals("R")) {
-
-                    String frog = this.hopperBoard[iRow][iCol];
-
-                    // Try jumping North
-                    try {
-                        if (this.hopperBoard[iRow-2][iCol].equals("G") && this.hopperBoard[iRow-4][iCol].equals(".")) {
-                            neighbors.add(makeNeighbor(iRow-4,
-                                    iCol, iRow-2, iCol, iRow, iCol, frog));
-                        }
-                    } catch (IndexOutOfBoundsException ie) {}
-
-                    // Try jumping North East
-                    try {
-                        if (this.hopperBoard[iRow-1][iCol+1].equals("G") && this.hopperBoard[iRow-2][iCol+2].equals(".")) {
-                            neighbors.add(makeNeighbor(iRow-2,
-                                    iCol+2, iRow-1, iCol+1, iRow, iCol, frog));
-                        }
-                    } catch (IndexOutOfBoundsException ie) {}
-
-                    // Try jumping East
-                    try {
-                        if (this.hopperBoard[iRow][iCol+2].equals("G") && this.hopperBoard[iRow][iCol+4].equals(".")) {
-                            neighbors.add(makeNeighbor(iRow,
-                                    iCol+4, iRow, iCol+2, iRow, iCol, frog));
-                        }
-                    } catch (IndexOutOfBoundsException ie) {}
-
-                    // Try jumping South East
-                    try {
-                        if (this.hopperBoard[iRow+1][iCol+1].equals("G") && this.hopperBoard[iRow+2][iCol+2].equals(".")) {
-                            neighbors.add(makeNeighbor(iRow+2,
-                                    iCol+2, iRow+1, iCol+1, iRow, iCol, frog));
-                        }
-                    } catch (IndexOutOfBoundsException ie) {}
-
-                    // Try jumping South
-                    try {
-                        if (this.hopperBoard[iRow+2][iCol].equals("G") && this.hopperBoard[iRow+4][iCol].equals(".")) {
-                            neighbors.add(makeNeighbor(iRow+4,
-                                    iCol, iRow+2, iCol, iRow, iCol, frog));
-                        }
-                    } catch (IndexOutOfBoundsException ie) {}
-
-                    // Try jumping South West
-                    try {
-                        if (this.hopperBoard[iRow+1][iCol-1].equals("G") && this.hopperBoard[iRow+2][iCol-2].equals(".")) {
-                            neighbors.add(makeNeighbor(iRow+2,
-                                    iCol-2, iRow+1, iCol-1, iRow, iCol, frog));
-                        }
-                    } catch (IndexOutOfBoundsException ie) {}
-
-                    // Try jumping West
-                    try {
-                        if (this.hopperBoard[iRow][iCol-2].equals("G") && this.hopperBoard[iRow][iCol-4].equals(".")) {
-                            neighbors.add(makeNeighbor(iRow,
-                                    iCol-4, iRow, iCol-2, iRow, iCol, frog));
-                        }
-                    } catch (IndexOutOfBoundsException ie) {}
-
-                    // Try jumping North West
-                    try {
-                        if (this.hopperBoard[iRow-1][iCol-1].equals("G") && this.hopperBoard[iRow-2][iCol-2].equals(".")) {
-                            neighbors.add(makeNeighbor(iRow-2,
-                                    iCol-2, iRow-1, iCol-1, iRow, iCol, frog));
-                        }
-                    } catch (IndexOutOfBoundsException ie) {}
+    public Collection<Configuration> getGoals() {
+        List<Configuration> goals = new ArrayList<>();
+        if (redFrogCount != 1) {
+            return goals;
+        }
+        int redGroup = -1;
+        for (int pad = 0; pad < layout.pads; pad++) {
+            if (isRed(pad)) {
+                redGroup = layout.groupOfPad[pad];
+            }
+        }
+        for (int pad = 0; pad < layout.pads; pad++) {
+            if (layout.groupOfPad[pad] != redGroup) {
+                continue;
+            }
+            long[] newFrogs = new long[2 * layout.words];
+            newFrogs[layout.words + (pad >>> 6)] |= 1L << pad;
+            HoppersConfig goal = new HoppersConfig(layout, newFrogs, layout.zobrist.key(pad, 1), 0, 1);
+            goal.origin = this;
+            goals.add(goal);
+        }
+        return goals;
+    }
+
+    /**
+     * Undoes every jump that could have made this board. Any frog could have
+     * jumped onto its pad from two pads away as long as the pad it came from
+     * and the pad it jumped over are empty now, and the green frog it jumped
+     * over is put back. A green frog is only put back on a pad whose group
+     * has fewer green frogs than on the starting board, since frogs never
+     * change group.
+     *
+     * @return set of boards one jump before this one
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        Set<Configuration> predecessors = new LinkedHashSet<Configuration>();
+        if (origin == null || greenFrogCount >= origin.greenFrogCount) {
+            return predecessors;
+        }
+        int[] spareGreens = origin.greensPerGroup();
+        int[] greens = greensPerGroup();
+        for (int group = 0; group < HoppersLayout.GROUPS; group++) {
+            spareGreens[group] -= greens[group];
+        }
+        for (int word = 0; word < layout.words; word++) {
+            long landed = frogs[word] | frogs[layout.words + word];
+            while (landed != 0) {
+                int pad = word * Long.SIZE + Long.numberOfTrailingZeros(landed);
+                landed &= landed - 1;
+                // jumps are the same both ways, so (pad, over, from) undoes a jump from "from" onto pad
+                int[] jumps = layout.jumps[pad];
+                for (int i = 0; i < jumps.length; i += 3) {
+                    int over = jumps[i + 1];
+                    if (spareGreens[layout.groupOfPad[over]] > 0 && isEmpty(over) && isEmpty(jumps[i + 2])) {
+                        predecessors.add(unjump(jumps[i + 2], over, pad));
+                    }
                 }
             }
         }
-        return neighbors;
+        return predecessors;
+    }
+
+    /**
+     * Helper function for getPredecessors()
+     * Creates the HoppersConfig from before a frog jumped, moving it back and putting back a green frog
+     *
+     * @param from pad the frog jumped from
+     * @param over pad of the green frog that is put back
+     * @param to pad the frog is on now
+     * @return HoppersConfig representing the configuration before the jump
+     */
+    private HoppersConfig unjump(int from, int over, int to) {
+        long[] newFrogs = frogs.clone();
+        int red = isRed(to) ? 1 : 0;
+        int colour = red * layout.words;
+        newFrogs[colour + (to >>> 6)] &= ~(1L << to);
+        newFrogs[over >>> 6] |= 1L << over;
+        newFrogs[colour + (from >>> 6)] |= 1L << from;
+        ZobristTable keys = layout.zobrist;
+        long newHash = hash ^ keys.key(to, red) ^ keys.key(over, 0) ^ keys.key(from, red);
+        HoppersConfig before = new HoppersConfig(layout, newFrogs, newHash, greenFrogCount + 1, redFrogCount);
+        before.origin = origin;
+        return before;
+    }
+
+    /**
+     * Counts the green frogs in each group of pads
+     *
+     * @return number of green frogs in each group
+     */
+    private int[] greensPerGroup() {
+        int[] greens = new int[HoppersLayout.GROUPS];
+        for (int word = 0; word < layout.words; word++) {
+            long bits = frogs[word];
+            while (bits != 0) {
+                greens[layout.groupOfPad[word * Long.SIZE + Long.numberOfTrailingZeros(bits)]]++;
+                bits &= bits - 1;
+            }
+        }
+        return greens;
+    }
+
+    /**
+     * Goes through the jumps in the same order as getNeighbors, working out the
+     * packed board after each one straight from the packed board now instead of
+     * making the new HoppersConfig. A move is the pad of the moving frog in the
+     * high bits and where its jump starts in layout.jumps in the low 16 bits.
+     *
+     * @param visitor what to tell about each move
+     */
+    @Override
+    public void forEachMove(MoveVisitor visitor) {
+        int pads = layout.pads;
+        long packed = toLong();
+        long occupied = packed & ((1L << pads) - 1);
+        long reds = packed >>> pads;
+        long movers = occupied;
+        while (movers != 0) {
+            int pad = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+            int[] jumps = layout.jumps[pad];
+            for (int i = 0; i < jumps.length; i += 3) {
+                int over = jumps[i + 1];
+                int to = jumps[i + 2];
+                if (isGreen(over) && isEmpty(to)) {
+                    // the frogs on pad and over lose their red bits, then the frog lands on to with its own
+                    int fromIndex = Long.bitCount(occupied & ((1L << pad) - 1));
+                    int overIndex = Long.bitCount(occupied & ((1L << over) - 1));
+                    long red = (reds >>> fromIndex) & 1;
+                    long newReds = MoveConfiguration.removeField(reds, Math.max(fromIndex, overIndex), 1);
+                    newReds = MoveConfiguration.removeField(newReds, Math.min(fromIndex, overIndex), 1);
+                    long newOccupied = (occupied & ~(1L << pad) & ~(1L << over)) | (1L << to);
+                    int toIndex = Long.bitCount(newOccupied & ((1L << to) - 1));
+                    newReds = MoveConfiguration.insertField(newReds, toIndex, 1, red);
+                    visitor.visit((pad << 16) | i, newOccupied | (newReds << pads));
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes the HoppersConfig after a move from forEachMove
+     *
+     * @param move pad of the moving frog and where its jump starts in layout.jumps
+     * @return HoppersConfig representing new configuration
+     */
+    @Override
+    public Configuration applyMove(int move) {
+        int[] jumps = layout.jumps[move >>> 16];
+        int i = move & 0xFFFF;
+        return jump(jumps[i], jumps[i + 1], jumps[i + 2]);
     }
 
     /**
      * Helper function for getNeighbors()
+     * Creates a new HoppersConfig by jumping the frog on one pad over the green frog on another
+     *
+     * @param from pad of the moving frog
+     * @param over pad of the green frog that is removed
+     * @param to pad the moving frog lands on
+     * @return HoppersConfig representing new configuration
+     */
+    private HoppersConfig jump(int from, int over, int to) {
+        long[] newFrogs = frogs.clone();
+        int red = isRed(from) ? 1 : 0;
+        int colour = red * layout.words;
+        newFrogs[colour + (from >>> 6)] &= ~(1L << from);
+        newFrogs[over >>> 6] &= ~(1L << over);
+        newFrogs[colour + (to >>> 6)] |= 1L << to;
+        ZobristTable keys = layout.zobrist;
+        long newHash = hash ^ keys.key(from, red) ^ keys.key(over, 0) ^ keys.key(to, red);
+        return new HoppersConfig(layout, newFrogs, newHash, greenFrogCount - 1, redFrogCount);
+    }
+
+    /**
+     * Works out the Zobrist hash of a set of frogs from scratch
+     * @param layout water and lily pads of the board
+     * @param frogs green frog bitset followed by the red frog bitset
+     * @return XOR of the keys of every frog
+     */
+    private static long hashOf(HoppersLayout layout, long[] frogs) {
+        long frogHash = 0;
+        for (int colour = 0; colour < 2; colour++) {
+            for (int word = 0; word < layout.words; word++) {
+                long bits = frogs[colour * layout.words + word];
+                while (bits != 0) {
+                    frogHash ^= layout.zobrist.key(word * Long.SIZE + Long.numberOfTrailingZeros(bits), colour);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return frogHash;
+    }
+
+    /**
      * Creates a new HoppersConfig neighbor by moving a piece and removing the corresponding piece
      *
      * @param newRow Row value for moving piece
@@ -163,49 +399,190 @@ public class HoppersConfig implements Configuration{
      * @param originalCol Column value for original location of moving piece
      * @param frog Type of frog being moved, G(reen) or R(ed)
      * @return HoppersConfig representing new configuration
-     * @throws IndexOutOfBoundsException to be handled by getNeighbors
+     * @throws IndexOutOfBoundsException if any of the cells is water or off the board
      */
     public HoppersConfig makeNeighbor(int newRow, int newCol, int removeRow, int removeCol,
                                       int originalRow, int originalCol, String frog) throws IndexOutOfBoundsException {
-        String[][] newHopperBoard = new String[rowDim][colDim];
-        for (int iRow = 0; iRow < rowDim; iRow++) {
-            for (int iCol = 0; iCol < colDim; iCol++) {
-                if (iRow == newRow && iCol == newCol) {
-                    newHopperBoard[iRow][iCol] = frog;
-                } else if (iRow == removeRow && iCol == removeCol) {
-                    newHopperBoard[iRow][iCol] = ".";
-                } else if (iRow == originalRow && iCol == originalCol) {
-                    newHopperBoard[iRow][iCol] = ".";
-                } else {
-                    newHopperBoard[iRow][iCol] = this.hopperBoard[iRow][iCol];
-                }
-            }
+        int to = layout.padAt(newRow, newCol);
+        int over = layout.padAt(removeRow, removeCol);
+        int from = layout.padAt(originalRow, originalCol);
+        if (to < 0 || over < 0 || from < 0) {
+            throw new IndexOutOfBoundsException("Jump must stay on lily pads");
+        }
+        long[] newFrogs = frogs.clone();
+        for (int pad : new int[]{from, over, to}) {
+            newFrogs[pad >>> 6] &= ~(1L << pad);
+            newFrogs[layout.words + (pad >>> 6)] &= ~(1L << pad);
+        }
+        int colour = frog.equals("R") ? layout.words : 0;
+        newFrogs[colour + (to >>> 6)] |= 1L << to;
+        return new HoppersConfig(layout, newFrogs, hashOf(layout, newFrogs),
+                count(layout, newFrogs, 0), count(layout, newFrogs, layout.words));
+    }
+
+    /**
+     * Checks if there is a green frog on a pad
+     * @param pad lily pad
+     * @return true if a green frog is on it
+     */
+    private boolean isGreen(int pad) {
+        return (frogs[pad >>> 6] & (1L << pad)) != 0;
+    }
+
+    /**
+     * Checks if there is a red frog on a pad
+     * @param pad lily pad
+     * @return true if a red frog is on it
+     */
+    private boolean isRed(int pad) {
+        return (frogs[layout.words + (pad >>> 6)] & (1L << pad)) != 0;
+    }
+
+    /**
+     * Checks if there is no frog on a pad
+     * @param pad lily pad
+     * @return true if the pad is empty
+     */
+    private boolean isEmpty(int pad) {
+        return ((frogs[pad >>> 6] | frogs[layout.words + (pad >>> 6)]) & (1L << pad)) == 0;
+    }
+
+    /**
+     * Counts the frogs in one of the two bitsets
+     * @param layout water and lily pads of the board
+     * @param frogs green frog bitset followed by the red frog bitset
+     * @param offset where the bitset starts in frogs
+     * @return number of frogs in the bitset
+     */
+    private static int count(HoppersLayout layout, long[] frogs, int offset) {
+        int total = 0;
+        for (int word = 0; word < layout.words; word++) {
+            total += Long.bitCount(frogs[offset + word]);
         }
-        return new HoppersConfig(newHopperBoard);
+        return total;
     }
 
     @Override
     public boolean equals(Object other) {
         if (other instanceof HoppersConfig otherHoppers) {
-            for (int i = 0; i < rowDim; i++) {
-                for (int j = 0; j < colDim; j++) {
-                    if (!(this.hopperBoard[i][j].equals(otherHoppers.hopperBoard[i][j]))) {
-                        return false;
-                    }
-                }
-            }
-            return true;
+            return this.hash == otherHoppers.hash && this.greenFrogCount == otherHoppers.greenFrogCount
+                    && this.redFrogCount == otherHoppers.redFrogCount && Arrays.equals(this.frogs, otherHoppers.frogs)
+                    && this.layout.sameAs(otherHoppers.layout);
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(hopperBoard);
+        return ZobristTable.fold(hash);
+    }
+
+    /**
+     * Checks if the board can be packed into a long. The packed board has one bit
+     * per lily pad saying if a frog is on it, followed by one bit per frog saying
+     * if it is red. Jumps only ever remove frogs, so every later board fits as well.
+     * @return true if the board fits in a long
+     */
+    @Override
+    public boolean fitsInLong() {
+        return layout.pads + greenFrogCount + redFrogCount <= Long.SIZE;
+    }
+
+    /**
+     * Packs the board into a long. The low bits are the frog bits of the lily pads
+     * and the bits above them are the red bits of the frogs, in pad order.
+     * @return packed board
+     */
+    @Override
+    public long toLong() {
+        long greens = frogs[0];
+        long reds = frogs[layout.words];
+        long occupied = greens | reds;
+        long packed = occupied;
+        int redShift = layout.pads;
+        while (occupied != 0) {
+            long lowest = occupied & -occupied;
+            occupied ^= lowest;
+            if ((reds & lowest) != 0) {
+                packed |= 1L << redShift;
+            }
+            redShift++;
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks a board made by toLong, using the lily pads of this board
+     * @param packed packed board
+     * @return HoppersConfig that was packed
+     */
+    @Override
+    public Configuration fromLong(long packed) {
+        long occupied = layout.pads == Long.SIZE ? packed : packed & ((1L << layout.pads) - 1);
+        long[] newFrogs = new long[2 * layout.words];
+        int redShift = layout.pads;
+        while (occupied != 0) {
+            long lowest = occupied & -occupied;
+            occupied ^= lowest;
+            boolean red = redShift < Long.SIZE && (packed & (1L << redShift)) != 0;
+            newFrogs[red ? layout.words : 0] |= lowest;
+            redShift++;
+        }
+        return new HoppersConfig(layout, newFrogs, hashOf(layout, newFrogs),
+                count(layout, newFrogs, 0), count(layout, newFrogs, layout.words));
+    }
+
+    /**
+     * Gets the number of bytes a packed board takes, which is two bits per lily pad
+     * @return size of the packed board in bytes
+     */
+    @Override
+    public int packedSize() {
+        return (layout.pads + 3) / 4;
+    }
+
+    /**
+     * Packs the board into bytes, two bits per lily pad in pad order,
+     * holding 0 for an empty pad, 1 for a green frog and 2 for a red frog
+     * @param buffer buffer to write into
+     * @param offset where in the buffer to start writing
+     */
+    @Override
+    public void packInto(byte[] buffer, int offset) {
+        int size = packedSize();
+        for (int index = 0; index < size; index++) {
+            buffer[offset + index] = 0;
+        }
+        for (int pad = 0; pad < layout.pads; pad++) {
+            long bit = 1L << pad;
+            int word = pad >>> 6;
+            int frog = (frogs[word] & bit) != 0 ? 1 : (frogs[layout.words + word] & bit) != 0 ? 2 : 0;
+            buffer[offset + pad / 4] |= (byte) (frog << (2 * (pad % 4)));
+        }
+    }
+
+    /**
+     * Unpacks a board made by packInto, using the lily pads of this board
+     * @param buffer buffer to read from
+     * @param offset where in the buffer the board starts
+     * @return HoppersConfig that was packed
+     */
+    @Override
+    public Configuration unpackFrom(byte[] buffer, int offset) {
+        long[] newFrogs = new long[2 * layout.words];
+        for (int pad = 0; pad < layout.pads; pad++) {
+            int frog = buffer[offset + pad / 4] >>> (2 * (pad % 4)) & 3;
+            if (frog != 0) {
+                newFrogs[(frog == 2 ? layout.words : 0) + (pad >>> 6)] |= 1L << pad;
+            }
+        }
+        return new HoppersConfig(layout, newFrogs, hashOf(layout, newFrogs),
+                count(layout, newFrogs, 0), count(layout, newFrogs, layout.words));
     }
 
     @Override
     public String toString() {
+        String[][] board = getHopperBoard();
         String finalString = "";
 
         String firstRow = "   ";
@@ -223,7 +600,7 @@ public class HoppersConfig implements Configuration{
         for (int iRow = 0; iRow < rowDim; iRow++) {
             String rowString = iRow + "| ";
             for (int iCol = 0; iCol < colDim; iCol++) {
-                rowString += hopperBoard[iRow][iCol] + " ";
+                rowString += board[iRow][iCol] + " ";
             }
             finalString += rowString + "\n";
         }
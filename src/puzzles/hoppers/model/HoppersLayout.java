@@ -0,0 +1,107 @@
+package puzzles.hoppers.model;
+
+import puzzles.common.solver.ZobristTable;
+
+import java.util.Arrays;
+
+/**
+ * The fixed part of a Hoppers board: which cells are water and which are lily pads.
+ * Frogs can only ever sit on lily pads, so the pads are numbered 0, 1, 2, ... in
+ * row-major order and a set of frogs is a bitset over the pads only, which skips
+ * the half of the board that is water. Every jump a frog could make from each pad
+ * is worked out once here as a (from, over, to) triple of pads.
+ */
+final class HoppersLayout {
+    /** the jumps in the order they are tried (north, north east, east, south east,
+     *  south, south west, west, north west), as the row and column of the landing pad */
+    private static final int[][] JUMPS = {{-4,0},{-2,2},{0,4},{2,2},{4,0},{2,-2},{0,-4},{-2,-2}};
+
+    final int rowDim;
+    final int colDim;
+    /** the number of lily pads */
+    final int pads;
+    /** the number of longs in one frog bitset */
+    final int words;
+    /** the row-major cell of each pad */
+    final int[] cellOfPad;
+    /** the pad of each row-major cell, -1 for water */
+    final int[] padOfCell;
+    /** the jumps from each pad, three entries (from, over, to) per jump */
+    final int[][] jumps;
+    /** the hash keys of a green (0) or red (1) frog on each pad */
+    final ZobristTable zobrist;
+    /** the number of different groups a pad can be in */
+    static final int GROUPS = 8;
+    /** the group of each pad. Every jump moves a frog by two rows and two columns,
+     *  or four rows or four columns, so a frog can never leave the group it starts in */
+    final int[] groupOfPad;
+
+    /**
+     * Works out the pads and jumps of a board
+     * @param hopperBoard the board, where "*" is water and anything else is a lily pad
+     */
+    HoppersLayout(String[][] hopperBoard) {
+        this.rowDim = hopperBoard.length;
+        this.colDim = hopperBoard[0].length;
+        this.padOfCell = new int[rowDim * colDim];
+        int[] cells = new int[rowDim * colDim];
+        int count = 0;
+        for (int iRow = 0; iRow < rowDim; iRow++) {
+            for (int iCol = 0; iCol < colDim; iCol++) {
+                if (hopperBoard[iRow][iCol].equals("*")) {
+                    padOfCell[iRow * colDim + iCol] = -1;
+                } else {
+                    padOfCell[iRow * colDim + iCol] = count;
+                    cells[count++] = iRow * colDim + iCol;
+                }
+            }
+        }
+        this.pads = count;
+        this.words = Math.max(1, (pads + Long.SIZE - 1) / Long.SIZE);
+        this.cellOfPad = Arrays.copyOf(cells, count);
+        this.jumps = new int[pads][];
+        this.zobrist = ZobristTable.of(pads, 2);
+        this.groupOfPad = new int[pads];
+        for (int pad = 0; pad < pads; pad++) {
+            int iRow = cellOfPad[pad] / colDim;
+            int iCol = cellOfPad[pad] % colDim;
+            // cells a jump apart have the same row and column parity and the same (row + column) / 2 parity
+            groupOfPad[pad] = (iRow % 2) * 4 + (iCol % 2) * 2 + ((iRow - iRow % 2 + iCol - iCol % 2) % 4) / 2;
+            int[] found = new int[3 * JUMPS.length];
+            int length = 0;
+            for (int[] jump : JUMPS) {
+                int over = padAt(iRow + jump[0] / 2, iCol + jump[1] / 2);
+                int to = padAt(iRow + jump[0], iCol + jump[1]);
+                if (over >= 0 && to >= 0) {
+                    found[length++] = pad;
+                    found[length++] = over;
+                    found[length++] = to;
+                }
+            }
+            jumps[pad] = Arrays.copyOf(found, length);
+        }
+    }
+
+    /**
+     * Gets the pad at a row and column
+     * @param row the row
+     * @param col the column
+     * @return the pad, or -1 if the cell is water or off the board
+     */
+    int padAt(int row, int col) {
+        if (row < 0 || row >= rowDim || col < 0 || col >= colDim) {
+            return -1;
+        }
+        return padOfCell[row * colDim + col];
+    }
+
+    /**
+     * Sees if two boards have their water in the same cells
+     * @param other the other layout
+     * @return true if the layouts are the same
+     */
+    boolean sameAs(HoppersLayout other) {
+        return this == other || (rowDim == other.rowDim && colDim == other.colDim
+                && Arrays.equals(padOfCell, other.padOfCell));
+    }
+}
@@ -1,13 +1,19 @@
 package puzzles.hoppers.model;
 
 import puzzles.common.Observer;
-import puzzles.common.solver.Configuration;
-import puzzles.common.solver.Solver;
+import puzzles.common.solver.HintEvent;
+import puzzles.common.solver.SearchEngine;
+import puzzles.common.solver.SearchListener;
+import puzzles.common.solver.SearchResult;
+import puzzles.common.solver.SearchStrategy;
+import puzzles.common.solver.SolverEvents;
+import puzzles.common.solver.SolverMonitor;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 /**
  * The HoppersModel class used to implement both a PTUI and GUI for the Hoppers game
@@ -19,6 +25,8 @@ import java.util.*;
 public class HoppersModel {
     /** the collection of observers of this model */
     private final List<Observer<HoppersModel, String>> observers = new LinkedList<>();
+    /** the views told how the search of a hint is going, kept apart from the observers so the board is not redrawn */
+    private final List<SearchListener> searchListeners = new LinkedList<>();
 
     /** the current configuration */
     private HoppersConfig currentConfig;
@@ -50,6 +58,15 @@ public class HoppersModel {
         this.observers.add(observer);
     }
 
+    /**
+     * A view that can show how a long hint search is going while it runs,
+     * such as the PTUI, calls this to be told its progress
+     * @param listener told the progress of every hint's search
+     */
+    public void addSearchListener(SearchListener listener) {
+        this.searchListeners.add(listener);
+    }
+
     /**
      * The model's state has changed (the counter), so inform the view via the update method
      */
@@ -140,51 +157,50 @@ public class HoppersModel {
 
     /**
      * Generates the hint for the next move by implementing a BFS to find the
-     * optimal solution path. Sets current configuration to the hint found
+     * optimal solution path. Sets current configuration to the hint found.
+     * The search and telling the observers are recorded as a flight recorder event
+     * and counted by the SolverMonitor, which can also cancel the search.
      */
     public void hint() {
-        Map<Configuration, Configuration> predecessor = new HashMap<>();
-        Configuration startConfig = this.currentConfig;
-        predecessor.put(startConfig, null);
-
-        Queue<Configuration> toVisit = new LinkedList<>();
-        toVisit.offer(startConfig);
-
-        while (!toVisit.isEmpty() && !toVisit.peek().isSolution()) {
-            Configuration current = toVisit.remove();
-            for (Configuration neighbors : current.getNeighbors()) {
-                if (!(predecessor.containsKey(neighbors))) {
-                    predecessor.put(neighbors, current);
-                    toVisit.offer(neighbors);
-                }
+        long begin = System.nanoTime();
+        HintEvent event = SolverEvents.beginHint();
+        boolean solved = false;
+        long uniqueConfigs = 0;
+        try {
+            SearchEngine engine = SearchStrategy.BFS.newEngine();
+            for (SearchListener listener : searchListeners) {
+                engine.addListener(listener);
             }
-        }
-
-        if (toVisit.isEmpty()) {
-            alertObservers("Puzzle is not solvable");
-        } else {
+            SearchResult result;
             try {
-                Configuration finishConfig = toVisit.remove();
-                List<Configuration> path = new LinkedList<>();
-                path.add(0, finishConfig);
-                Configuration node = predecessor.get(finishConfig);
-                while (node != null) {
-                    path.add(0, node);
-                    node = predecessor.get(node);
-                }
+                result = engine.search(this.currentConfig);
+            } catch (CancellationException e) {
+                alertObservers("Hint cancelled");
+                return;
+            }
+            solved = result.isSolved();
+            uniqueConfigs = result.getUniqueConfigs();
 
-                this.currentConfig = (HoppersConfig) path.get(1);
-                if (this.currentConfig.isSolution()) {
-                    alertObservers("You finished the puzzle!");
-                } else {
-                    alertObservers("Next Step!");
+            if (!result.isSolved()) {
+                alertObservers("Puzzle is not solvable");
+            } else {
+                try {
+                    this.currentConfig = (HoppersConfig) result.getPath().get(1);
+                    if (this.currentConfig.isSolution()) {
+                        alertObservers("You finished the puzzle!");
+                    } else {
+                        alertObservers("Next Step!");
+                    }
+                } catch (IndexOutOfBoundsException ie) {
+                    alertObservers("Puzzle already solved!");
                 }
-            } catch (IndexOutOfBoundsException ie) {
-                alertObservers("Puzzle already solved!");
-            }
 
+            }
+            this.selectOrJump = -1;
+        } finally {
+            SolverEvents.endHint(event, "hoppers", solved, uniqueConfigs);
+            SolverMonitor.get().hintServed(System.nanoTime() - begin);
         }
-        this.selectOrJump = -1;
     }
 
     /**
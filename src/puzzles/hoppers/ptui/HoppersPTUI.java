@@ -28,6 +28,7 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
         System.out.println("Loaded :" + filename);
         System.out.println(this.model.getCurrentConfig().toString());
         this.model.addObserver(this);
+        this.model.addSearchListener(progress -> System.out.println("Searching: " + progress));
         displayHelp();
     }
 
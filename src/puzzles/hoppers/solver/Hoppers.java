@@ -1,5 +1,6 @@
 package puzzles.hoppers.solver;
 
+import puzzles.common.solver.SearchStrategy;
 import puzzles.common.solver.Solver;
 import puzzles.hoppers.model.HoppersConfig;
 
@@ -16,8 +17,8 @@ import java.io.*;
 public class Hoppers {
     public static void main(String[] args) throws IOException {
         try {
-            if (args.length != 1) {
-                System.out.println("Usage: java Hoppers filename");
+            if (args.length < 1 || args.length > 2) {
+                System.out.println("Usage: java Hoppers filename [strategy]");
             } else {
                 BufferedReader hopperLoader = new BufferedReader( new FileReader(args[0]));
                 String[] dimensions = hopperLoader.readLine().split(" ");
@@ -35,7 +36,8 @@ public class Hoppers {
                 System.out.println("File: " + args[0]);
                 System.out.println(initialConfig.toString());
 
-                Solver.solve(initialConfig);
+                SearchStrategy strategy = args.length == 2 ? SearchStrategy.fromName(args[1]) : SearchStrategy.BFS;
+                Solver.solve(initialConfig, strategy);
 
             }
         } catch (FileNotFoundException fnfe) {System.out.println("Invalid file exception thrown");}
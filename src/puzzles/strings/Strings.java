@@ -1,5 +1,6 @@
 package puzzles.strings;
 
+import puzzles.common.solver.SearchStrategy;
 import puzzles.common.solver.Solver;
 /**
  * The main class for where the String Configs are created
@@ -9,16 +10,18 @@ public class Strings {
     /**
      * Makes the start config and prints it
      * @param args the first string is where the string will start
-     *             the last string is wgere the string should end
+     *             the second string is wgere the string should end
+     *             an optional third argument names the search strategy
      */
     public static void main(String[] args) {
         if (args.length < 2) {
-            System.out.println(("Usage: java Strings start finish"));
+            System.out.println(("Usage: java Strings start finish [strategy]"));
         } else {
             StringsConfig initialConfig = new StringsConfig(args);
             System.out.println("Start: "+initialConfig.getCurrent()+
                     ", End: "+initialConfig.getEnd());
-            Solver.solve(initialConfig);
+            SearchStrategy strategy = args.length > 2 ? SearchStrategy.fromName(args[2]) : SearchStrategy.BFS;
+            Solver.solve(initialConfig, strategy);
         }
     }
 }
@@ -1,15 +1,22 @@
 package puzzles.strings;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.HeuristicConfiguration;
+import puzzles.common.solver.PackedConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Predicate;
 /**
  * A single representation of a string that uses
  * methods from the configuration interface
  */
-public class StringsConfig implements Configuration {
+public class StringsConfig implements PackedConfiguration, HeuristicConfiguration, ReversibleConfiguration {
+    /** the longest string whose letters still fit in a long as a base 26 number */
+    private static final int MAX_PACKED_LENGTH = 13;
+
     private String current;
     private final String end;
 
@@ -100,6 +107,74 @@ public class StringsConfig implements Configuration {
         return neighbors;
     }
 
+    /**
+     * Hands the neighbors to a visitor in the same order as getNeighbors,
+     * moving each letter one forwards and then one backwards, without
+     * putting them in a set first
+     * @param visitor gets each neighbor strings config, and returns false to stop
+     * @return true if every neighbor was visited
+     */
+    @Override
+    public boolean forEachNeighbor(Predicate<Configuration> visitor) {
+        char[] letters = this.current.toCharArray();
+        for (int i = 0; i < end.length(); i++) {
+            char letter = letters[i];
+            letters[i] = letter + 1 == 91 ? 'A' : (char) (letter + 1);
+            if (!visitor.test(new StringsConfig(new String[]{new String(letters), end}))) {
+                return false;
+            }
+            letters[i] = letter - 1 == 64 ? 'Z' : (char) (letter - 1);
+            if (!visitor.test(new StringsConfig(new String[]{new String(letters), end}))) {
+                return false;
+            }
+            letters[i] = letter;
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the moves left by adding up how far each letter is from
+     * the letter it has to become, going whichever way around the alphabet
+     * is shorter. A move only changes one letter by one, so this is never
+     * more than the real number of moves. Characters that are not capital
+     * letters do not wrap around, so they are counted as zero.
+     * @return a lower bound on the moves left to the end config
+     */
+    @Override
+    public int estimateCost() {
+        int moves = 0;
+        for (int i = 0; i < end.length(); i++) {
+            char letter = current.charAt(i);
+            char goal = end.charAt(i);
+            if (letter >= 'A' && letter <= 'Z' && goal >= 'A' && goal <= 'Z') {
+                int distance = Math.abs(letter - goal);
+                moves += Math.min(distance, 26 - distance);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Gets the end config. Moving a capital letter forwards or backwards can
+     * always be undone, and going around the alphabet never leaves the
+     * capital letters, so a string of capital letters can be searched
+     * backwards. Other characters can be stepped onto the letters and not
+     * back off again, so an end string with them in it cannot.
+     * @return the end config, or null if the end string is not all capital letters
+     */
+    @Override
+    public Configuration getGoal() {
+        if (current.length() != end.length()) {
+            return null;
+        }
+        for (int i = 0; i < end.length(); i++) {
+            if (end.charAt(i) < 'A' || end.charAt(i) > 'Z') {
+                return null;
+            }
+        }
+        return new StringsConfig(new String[]{end, end});
+    }
+
     /**
      * Converts a native array of strings into a string variable
      * @param listString the native array list to be converted
@@ -142,6 +217,53 @@ public class StringsConfig implements Configuration {
     public int hashCode() {
         return this.current.hashCode() + end.hashCode();
     }
+    /**
+     * Sees if the current string can be packed as a base 26 number,
+     * which needs every character to be a capital letter
+     * @return true if the current string fits in a long
+     */
+    @Override
+    public boolean fitsInLong() {
+        if (this.current.length() > MAX_PACKED_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < this.current.length(); i++) {
+            char letter = this.current.charAt(i);
+            if (letter < 'A' || letter > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packs the current string as a base 26 number with A as 0 and Z as 25
+     * @return the packed string
+     */
+    @Override
+    public long toLong() {
+        long packed = 0;
+        for (int i = 0; i < this.current.length(); i++) {
+            packed = packed * 26 + (this.current.charAt(i) - 'A');
+        }
+        return packed;
+    }
+
+    /**
+     * Makes the strings config for a packed string of the same length as this one
+     * @param packed the base 26 number of the string
+     * @return a strings config with the same end as this one
+     */
+    @Override
+    public Configuration fromLong(long packed) {
+        char[] letters = new char[this.current.length()];
+        for (int i = letters.length - 1; i >= 0; i--) {
+            letters[i] = (char) ('A' + packed % 26);
+            packed /= 26;
+        }
+        return new StringsConfig(new String[]{new String(letters), end});
+    }
+
     /**
      * Makes a nice looking string representation of the strings config
      * @return a string containing the info about the strings config